@@ -0,0 +1,121 @@
+/*
+ * class BacktrackerGenerator
+ *
+ * Random maze generation with the recursive backtracker
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+
+
+/**
+ * Generates random perfect mazes with the recursive backtracker: a random walk that
+ * only steps into unvisited cells, backing up when it gets stuck, until it is back
+ * where it started.
+ * <p>
+ * The walk keeps no stack.  Each cell records, in 2 bits, the direction back to the
+ * cell it was entered from, and backing up follows those directions.  Together with
+ * one visited bit per cell that is all the memory it needs, whatever the length of
+ * the corridors.
+ */
+final class BacktrackerGenerator implements MazeGenerator {
+
+    /** Directions, in the order used by <code>MazeSolver</code>. */
+    private static final int RIGHT = 0, DOWN = 1, LEFT = 2, UP = 3;
+
+
+    public String name() {
+        return "backtracker";
+    }
+
+
+    public void generate(WallStore walls, int rows, int cols, SplittableRandom rd) {
+
+        walls.fill(WallStore.RIGHT | WallStore.BOT);
+
+        int n = rows * cols;
+        long[] visited = new long[(n + 63) >>> 6];
+        long[] back = new long[(n + 31) >>> 5];
+        int[] dirs = new int[4];
+
+        int start = rd.nextInt(n);
+        int cell = start;
+        visited[cell >>> 6] |= 1L << cell;
+
+        while (true) {
+
+            int row = cell / cols;
+            int col = cell - row * cols;
+
+            // unvisited neighbours of the current cell
+            int k = 0;
+            if (col < cols - 1 && !isSet(visited, cell + 1))
+                dirs[k++] = RIGHT;
+            if (row < rows - 1 && !isSet(visited, cell + cols))
+                dirs[k++] = DOWN;
+            if (col > 0 && !isSet(visited, cell - 1))
+                dirs[k++] = LEFT;
+            if (row > 0 && !isSet(visited, cell - cols))
+                dirs[k++] = UP;
+
+            if (k > 0) {
+                // step into one of them at random, knocking down the wall in between
+                int dir = dirs[k == 1 ? 0 : rd.nextInt(k)];
+                int next = step(cell, dir, cols);
+                open(walls, cell, dir, cols);
+                visited[next >>> 6] |= 1L << next;
+                back[next >>> 5] |= (long) ((dir + 2) & 3) << ((next & 31) << 1);
+                cell = next;
+            }
+            else if (cell == start) {
+                break;
+            }
+            else {
+                // dead end: back up the way we came
+                cell = step(cell, (int) (back[cell >>> 5] >>> ((cell & 31) << 1)) & 3, cols);
+            }
+
+        } // end of while
+
+    } // end of generate(WallStore, int, int, SplittableRandom)
+
+
+    /*
+     * Returns true if bit i of a bit set is set.
+     */
+    private static boolean isSet(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+
+    /*
+     * Returns the cell next to a cell in a given direction.
+     */
+    private static int step(int cell, int dir, int cols) {
+
+        switch (dir) {
+            case RIGHT: return cell + 1;
+            case DOWN:  return cell + cols;
+            case LEFT:  return cell - 1;
+            default:    return cell - cols;
+        }
+
+    } // end of step(int, int, int)
+
+
+    /*
+     * Removes the wall on one side of a cell.
+     */
+    private static void open(WallStore walls, int cell, int dir, int cols) {
+
+        switch (dir) {
+            case RIGHT: walls.clear(cell, WallStore.RIGHT);        break;
+            case DOWN:  walls.clear(cell, WallStore.BOT);          break;
+            case LEFT:  walls.clear(cell - 1, WallStore.RIGHT);    break;
+            default:    walls.clear(cell - cols, WallStore.BOT);   break;
+        }
+
+    } // end of open(WallStore, int, int, int)
+
+} // end of BacktrackerGenerator
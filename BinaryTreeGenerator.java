@@ -0,0 +1,57 @@
+/*
+ * class BinaryTreeGenerator
+ *
+ * Random maze generation with the binary tree algorithm
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+
+
+/**
+ * Generates random perfect mazes with the binary tree algorithm: every cell opens
+ * either its bottom or its right wall, chosen at random, except along the bottom row
+ * and right column where only one of them leads anywhere.  Every cell then has a
+ * single way towards the bottom-right corner, which makes the maze a tree.
+ * <p>
+ * Each cell is decided on its own, so the algorithm needs no memory beyond the walls
+ * and one random bit per cell.  The mazes have an obvious diagonal bias and an open
+ * bottom row and right column.
+ */
+final class BinaryTreeGenerator implements MazeGenerator {
+
+    public String name() {
+        return "binarytree";
+    }
+
+
+    public void generate(WallStore walls, int rows, int cols, SplittableRandom rd) {
+
+        walls.fill(WallStore.RIGHT | WallStore.BOT);
+
+        long cell = 0;
+        long bits = 0;
+        int left = 0;
+
+        for (int r = 0; r < rows - 1; r++) {
+            for (int c = 0; c < cols - 1; c++, cell++) {
+                // take random bits 64 at a time
+                if (left == 0) {
+                    bits = rd.nextLong();
+                    left = 64;
+                }
+                walls.clear(cell, (bits & 1) == 0 ? WallStore.BOT : WallStore.RIGHT);
+                bits >>>= 1;
+                left--;
+            }
+            walls.clear(cell++, WallStore.BOT);
+        }
+
+        // the bottom row can only open to the right
+        for (int c = 0; c < cols - 1; c++, cell++)
+            walls.clear(cell, WallStore.RIGHT);
+
+    } // end of generate(WallStore, int, int, SplittableRandom)
+
+} // end of BinaryTreeGenerator
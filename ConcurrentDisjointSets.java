@@ -0,0 +1,162 @@
+/*
+ * class ConcurrentDisjointSets
+ *
+ * Thread-safe union-find data structure
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.concurrent.atomic.*;
+
+
+/**
+ * Provides a lock-free union-find structure that any number of threads may use at once.
+ * It has the same operations and contract as <code>DisjointSets</code>.
+ * <p>
+ * The array uses the same encoding as <code>DisjointSets</code>: a root holds minus the
+ * size of its set, any other element holds its parent.  Every change is a
+ * compare-and-set on one entry of an <code>AtomicIntegerArray</code>, following the
+ * randomized linking of Jayanti and Tarjan:
+ * <ul>
+ * <li><b>find</b> walks to the root with path halving, trying to point each visited
+ * element at its grandparent.  A failed attempt is ignored, since it only means another
+ * thread changed the entry first.  Find never waits for other threads.</li>
+ * <li><b>union</b> links the root with the lower priority under the other one, with a
+ * compare-and-set that succeeds only if that root is unchanged.  On failure it starts
+ * over from the finds.  The size of the linked set is then added to the root above it.</li>
+ * </ul>
+ * Priorities are a fixed pseudo-random permutation of the element indices, so every
+ * parent has a higher priority than its children and no cycle can form.  Unlike union by
+ * size, this keeps expected tree depth logarithmic without reading two sizes at once.
+ * <p>
+ * While unions are in progress, <code>count()</code> and the sizes returned by
+ * <code>union()</code> reflect the unions that have completed their links; once all
+ * threads are done they are exact.
+ */
+public class ConcurrentDisjointSets
+{
+
+    // Array containing sizes (for roots) and parents (for other elements)
+    private final AtomicIntegerArray s;
+
+    // Number of disjoint sets
+    private final AtomicInteger sets;
+
+    /**
+     * Initializes a new ConcurrentDisjointSets object with <tt>n</tt> initial singleton sets.
+     * 
+     * @param n     number of initial singleton sets
+     */
+    public ConcurrentDisjointSets(int n)
+    {
+        s = new AtomicIntegerArray(n);
+
+        for (int i = 0; i < n; i++)
+            s.set(i, -1);
+
+        sets = new AtomicInteger(n);
+    }
+
+    /**
+     * Returns an integer representing the set containing <tt>x</tt>.
+     * If <i>i</i> and <i>j</i> are in the same set, then
+     * <tt>find(i)==find(j)</tt> once no union involving their sets is in progress.
+     * 
+     * @param x     the item whose container set to find
+     * @return      a representative element for the set containing <tt>x</tt>
+     * @throws IndexOutOfBoundsException    if <tt>x &lt; 0</tt> or <tt>x &gt;= size()</tt>
+     */
+    public int find(int x)
+    {
+        // if x is out of bounds, throw an exception
+        if (x < 0 || x >= s.length())
+            throw new IndexOutOfBoundsException("ConcurrentDisjointSets find() called with out-of-bounds element");
+
+        while (true) {
+            int p = s.get(x);
+            if (p < 0)
+                return x;
+
+            int g = s.get(p);
+            if (g < 0)
+                return p;
+
+            // point x to its grandparent, unless another thread got there first
+            s.compareAndSet(x, p, g);
+            x = g;
+        }
+    }
+
+    /**
+     * Joins the sets containing <tt>x</tt> and <tt>y</tt>, such that subsequent find operations on any elements
+     * in the sets containing <tt>x</tt> and <tt>y</tt> will return the same value.
+     * 
+     * @param x     item whose set should be joined
+     * @param y     item whose set should be joined
+     * @return      the size of the unioned set, or <tt>-1</tt> if <tt>x</tt> and <tt>y</tt> are already in the same set
+     */
+    public int union(int x, int y)
+    {
+        while (true) {
+            int a = find(x);
+            int b = find(y);
+
+            // a was the root of x's set, and later the root of y's set,
+            // and sets never split, so they are the same set
+            if (a == b)
+                return -1;
+
+            // make a the root with the lower priority
+            if (Integer.compareUnsigned(priority(a), priority(b)) > 0) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+
+            // link a under b, provided a is still a root of the size we read
+            int size = s.get(a);
+            if (size >= 0 || !s.compareAndSet(a, size, b))
+                continue;
+
+            sets.decrementAndGet();     // two sets became one
+
+            // add a's size to the root above it, following any links made meanwhile
+            for (int r = b; ; ) {
+                int v = s.get(r);
+                if (v >= 0)
+                    r = v;
+                else if (s.compareAndSet(r, v, v + size))
+                    return -(v + size);
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the data structure (provided at the time of construction).
+     * Unlike <tt>count()</tt>, the size of the structure does not change once created.
+     * 
+     * @return  the number of original singleton sets
+     */
+    public int size()
+    {
+        return s.length();
+    }
+
+    /**
+     * Returns the number of disjoint sets currently in the data structure.
+     * Each successful union operation reduces the number of disjoint sets
+     * by one.  Takes constant time.
+     * 
+     * @return  the number of disjoint sets
+     */
+    public int count()
+    {
+        return sets.get();
+    }
+
+    // Fixed permutation of the indices (multiplication by an odd constant is a bijection)
+    private static int priority(int x)
+    {
+        return x * 0x9E3779B9;
+    }
+}
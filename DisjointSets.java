@@ -10,7 +10,7 @@
 
 
 /**
- * Provides an implementation of weighted union-by-size with full path compression.
+ * Provides an implementation of weighted union-by-size with path halving.
  * Most of this code is from Chap. 24 of <a href="http://www.aw-bc.com/catalog/academic/product/0,1144,0321322134,00.html"><i>Data Structures and Problem Solving Using Java 3/E</i></a>
  * by <a href="http://www.cs.fiu.edu/~weiss/">Mark Allen Weiss</a>.
  * The data structure operation is also explained in Chap. 1 of <i>Algorithms in Java 3/E</i> by Sedgewick.
@@ -55,6 +55,9 @@ public class DisjointSets
     // Array containing sizes
     private int[] s;
 
+    // Number of disjoint sets, kept up to date by union()
+    private int sets;
+
     /**
      * Initializes a new DisjointSets object with <tt>n</tt> initial singleton sets.
      * 
@@ -66,6 +69,8 @@ public class DisjointSets
         
         for (int i = 0; i < n; i++)
             s[i] = -1;
+
+        sets = n;
     }
 
     /**
@@ -95,10 +100,14 @@ public class DisjointSets
     }
     
     /**
-     * Implements find with full path compression.
+     * Implements find with path halving.
      * Returns an integer representing the set containing <tt>x</tt>.
      * If <i>i</i> and <i>j</i> are in the same set, then
      * <tt>find(i)==find(j)</tt>.
+     * <p>
+     * The parent chain is walked iteratively, and every other element on it
+     * is made to point to its grandparent, so long chains neither grow the
+     * call stack nor survive repeated calls.
      * 
      * @param x     the item whose container set to find
      * @return      a representative element for the set containing <tt>x</tt>
@@ -110,9 +119,15 @@ public class DisjointSets
         if (x < 0 || x >= s.length)
             throw new IndexOutOfBoundsException("DisjointSets find() called with out-of-bounds element");
                 
-        // 
-        if (s[x] < 0) return x;
-        else return s[x] = find(s[x]);
+        // walk up to the root, halving the path on the way
+        while (s[x] >= 0) {
+            int p = s[x];
+            if (s[p] >= 0)
+                s[x] = s[p];    // point x to its grandparent
+            x = s[x];
+        }
+        
+        return x;
     }
     
     /**
@@ -127,24 +142,29 @@ public class DisjointSets
     public int union(int x, int y)
     {
         // get the roots of the elements now
-        int[] r = { find(x), find(y) };
+        int a = find(x);
+        int b = find(y);
         
         // if the elements are in the same set already,
         // no need to perform the union
-        if (r[0] == r[1])
+        if (a == b)
             return -1;
         
         // compare sizes;  join the smaller set to the larger
         // remember that sizes are stored as negative numbers!
         
-        // set l to be the index of the larger set
-        // then the smaller set is l XOR 1
-        int l = (s[r[0]] < s[r[1]]) ? 0 : 1;
+        // make a the root of the larger set (on a tie, y's root wins)
+        if (s[a] >= s[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
         
-        s[r[l]] += s[r[l^1]];   // update size of larger set
-        s[r[l^1]] = r[l];       // make smaller point to larger
+        s[a] += s[b];           // update size of larger set
+        s[b] = a;               // make smaller point to larger
+        sets--;                 // two sets became one
         
-        return -s[r[l]];        // return the size of the set
+        return -s[a];           // return the size of the set
     }
 
     /**
@@ -161,17 +181,13 @@ public class DisjointSets
     /**
      * Returns the number of disjoint sets currently in the data structure.
      * Each successful union operation reduces the number of disjoint sets
-     * by one.
+     * by one, so the count is maintained by <tt>union()</tt> and this call
+     * takes constant time.
      * 
      * @return  the number of disjoint sets
      */
     public int count()
     {
-		int c = 0;
-		for (int r : s)
-			if (r < 0)
-				c++;
-		
-		return c;
+        return sets;
     }
 }
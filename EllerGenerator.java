@@ -0,0 +1,280 @@
+/*
+ * class EllerGenerator
+ *
+ * Row-by-row random maze generation
+ * COSC 102, Colgate University
+ */
+
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+
+/**
+ * Generates random perfect mazes one row at a time with Eller's algorithm, keeping
+ * only the current row in memory.
+ * <p>
+ * Each cell of the current row carries a set label; cells with the same label are
+ * connected through the rows above.  For every row, neighbouring cells in different
+ * sets are joined at random by removing the wall between them, then every set opens
+ * at least one bottom wall so it carries on into the next row; cells below a closed
+ * bottom wall start new sets.  On the last row, all remaining sets are joined.
+ * The sets within a row are tracked with a small union-find over label numbers
+ * that is reset for each row, so each row takes time proportional to its width and
+ * memory never depends on the number of rows.
+ * <p>
+ * Rows can be pulled one at a time with <code>nextRow()</code>, which allows mazes of
+ * any height; <code>save()</code> and <code>saveBinary()</code> stream whole mazes straight
+ * to the formats read by <code>Maze(String)</code>.
+ */
+public class EllerGenerator {
+
+    /** Number of columns. */
+    private final int cols;
+
+    /** Source of randomness. */
+    private final SplittableRandom rd;
+
+    /** Set label of each cell of the current row, or -1 for a cell with no set yet. */
+    private final int[] set;
+
+    /** Union-find parents of the labels, reset for each row. */
+    private final int[] parent;
+
+    /** Scratch space, indexed by label: whether a label is in use, then how many cells of a set were seen. */
+    private final int[] count;
+
+    /** Per label: the cell picked to open downwards, or -1 if one already is. */
+    private final int[] pick;
+
+
+    /**
+     * Creates a generator for mazes of a given width.
+     *
+     * @param   cols    number of columns, at least 1
+     * @param   seed    seed for all random choices; the same seed and width give the same rows
+     */
+    public EllerGenerator(int cols, long seed) {
+
+        if (cols < 1)
+            throw new IllegalArgumentException("cannot generate a maze with " + cols + " columns");
+
+        this.cols = cols;
+        this.rd = new SplittableRandom(seed);
+        set = new int[cols];
+        parent = new int[cols];
+        count = new int[cols];
+        pick = new int[cols];
+
+        Arrays.fill(set, -1);
+
+    } // end of EllerGenerator(int, long)
+
+
+    /**
+     * Generates the next row of the maze.
+     * <p>
+     * Each cell's walls are stored as a combination of bit 2 (right wall present) and
+     * bit 1 (bottom wall present), as in the binary maze format.  The right wall of the
+     * last column and, on the last row, every bottom wall are always present.
+     *
+     * @param   last    <code>true</code> if this is the last row of the maze
+     * @param   walls   receives the walls of each cell of the row; at least <code>cols</code> long
+     */
+    public void nextRow(boolean last, byte[] walls) {
+
+        // give every cell without a set a label of its own
+        Arrays.fill(count, 0);
+        for (int c = 0; c < cols; c++)
+            if (set[c] >= 0)
+                count[set[c]] = 1;
+
+        int free = 0;
+        for (int c = 0; c < cols; c++) {
+            if (set[c] < 0) {
+                while (count[free] != 0)
+                    free++;
+                set[c] = free;
+                count[free] = 1;
+            }
+        }
+
+        for (int l = 0; l < cols; l++)
+            parent[l] = l;
+
+        // join neighbours in different sets at random (always, on the last row)
+        for (int c = 0; c < cols; c++) {
+            walls[c] = WallStore.RIGHT | WallStore.BOT;
+
+            if (c < cols - 1) {
+                int a = find(set[c]);
+                int b = find(set[c + 1]);
+                if (a != b && (last || rd.nextBoolean())) {
+                    walls[c] &= ~WallStore.RIGHT;
+                    parent[b] = a;
+                }
+            }
+        }
+
+        for (int c = 0; c < cols; c++)
+            set[c] = find(set[c]);
+
+        if (last)
+            return;
+
+        // open bottom walls at random, remembering sets that opened none;
+        // for those, pick one of their cells uniformly (reservoir sampling)
+        Arrays.fill(count, 0);
+        Arrays.fill(pick, 0);
+        for (int c = 0; c < cols; c++) {
+            int l = set[c];
+            if (rd.nextBoolean()) {
+                walls[c] &= ~WallStore.BOT;
+                pick[l] = -1;
+            } else if (pick[l] >= 0 && rd.nextInt(++count[l]) == 0) {
+                pick[l] = c + 1;    // stored off by one so 0 means none yet
+            }
+        }
+
+        for (int c = 0; c < cols; c++) {
+            int l = set[c];
+            if (pick[l] == c + 1)
+                walls[c] &= ~WallStore.BOT;
+        }
+
+        // cells under a closed bottom wall start the next row without a set
+        for (int c = 0; c < cols; c++)
+            if ((walls[c] & WallStore.BOT) != 0)
+                set[c] = -1;
+
+    } // end of nextRow(boolean, byte[])
+
+
+    /*
+     * Returns the representative of a label, halving the path.
+     */
+    private int find(int l) {
+        while (parent[l] != l) {
+            parent[l] = parent[parent[l]];
+            l = parent[l];
+        }
+        return l;
+    } // end of find(int)
+
+
+    /**
+     * Generates a random maze and writes it to a file in the text maze format, as
+     * <code>Maze.save()</code> would, without holding more than one row in memory.
+     * If <code>filename</code> ends in <code>.gz</code>, the text is gzip-compressed.
+     *
+     * @param   rows        the maze height (vertical dimension, number of rows)
+     * @param   cols        the maze width (horizontal dimension, number of columns)
+     * @param   filename    the file in which to store the maze.  If the file exists, it will be overwritten.
+     * @param   seed        seed for all random choices
+     * @throws IOException  if an error occurs while writing
+     */
+    public static void save(int rows, int cols, String filename, long seed) throws IOException {
+
+        if (rows < 1)
+            throw new IllegalArgumentException("cannot generate a maze with " + rows + " rows");
+
+        EllerGenerator gen = new EllerGenerator(cols, seed);
+        byte[] walls = new byte[cols];
+
+        try (OutputStream file = new FileOutputStream(filename)) {
+            OutputStream out = filename.endsWith(".gz") ? Maze.gzip(file) : file;
+
+            MazeTextWriter w = new MazeTextWriter(out);
+            w.writeHeader(cols, rows);
+            for (int r = 0; r < rows; r++) {
+                gen.nextRow(r == rows - 1, walls);
+                for (int c = 0; c < cols; c++)
+                    w.writeCell(walls[c]);
+            }
+            w.flush();
+
+            if (out instanceof GZIPOutputStream)
+                ((GZIPOutputStream) out).finish();
+        }
+
+    } // end of save(int, int, String, long)
+
+
+    /**
+     * Generates a random maze and writes it to a file in the binary maze format, as
+     * <code>Maze.saveBinary()</code> would, without holding more than one row in memory.
+     *
+     * @param   rows        the maze height (vertical dimension, number of rows)
+     * @param   cols        the maze width (horizontal dimension, number of columns)
+     * @param   filename    the file in which to store the maze.  If the file exists, it will be overwritten.
+     * @param   seed        seed for all random choices
+     * @throws IOException  if an error occurs while writing
+     */
+    public static void saveBinary(int rows, int cols, String filename, long seed) throws IOException {
+
+        if (rows < 1)
+            throw new IllegalArgumentException("cannot generate a maze with " + rows + " rows");
+
+        EllerGenerator gen = new EllerGenerator(cols, seed);
+        byte[] walls = new byte[cols];
+        MazeFile header = new MazeFile(cols, rows, String.format("rand(%dx%d)", rows, cols));
+
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            header.write(ch);
+            ch.position(header.payload);
+
+            // pack 4 cells per byte, carrying partial bytes over from row to row
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+            int acc = 0;
+            long cell = 0;
+
+            for (int r = 0; r < rows; r++) {
+                gen.nextRow(r == rows - 1, walls);
+                for (int c = 0; c < cols; c++, cell++) {
+                    acc |= walls[c] << ((cell & 3) << 1);
+                    if ((cell & 3) == 3) {
+                        if (!buf.hasRemaining())
+                            drain(ch, buf);
+                        buf.put((byte) acc);
+                        acc = 0;
+                    }
+                }
+            }
+
+            // last partial byte, then zeros up to the padded payload size
+            long bytes = (cell + 3) / 4;
+            if ((cell & 3) != 0) {
+                if (!buf.hasRemaining())
+                    drain(ch, buf);
+                buf.put((byte) acc);
+            }
+            for ( ; bytes < MazeFile.payloadBytes(cell); bytes++) {
+                if (!buf.hasRemaining())
+                    drain(ch, buf);
+                buf.put((byte) 0);
+            }
+            drain(ch, buf);
+        }
+
+    } // end of saveBinary(int, int, String, long)
+
+
+    /*
+     * Writes out and empties a buffer.
+     */
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+
+        buf.flip();
+        while (buf.hasRemaining())
+            ch.write(buf);
+        buf.clear();
+
+    } // end of drain(FileChannel, ByteBuffer)
+
+} // end of EllerGenerator
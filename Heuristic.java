@@ -0,0 +1,43 @@
+/*
+ * interface Heuristic
+ *
+ * Distance estimate for the A* maze solver
+ * COSC 102, Colgate University
+ */
+
+
+/**
+ * Estimates the number of moves from a cell to the goal, to guide the A* solver.
+ * <p>
+ * For A* to return a shortest path the estimate must never exceed the true
+ * distance and must not drop by more than one between neighbouring cells.
+ * Both built-in heuristics satisfy this.
+ */
+public interface Heuristic {
+
+    /** Manhattan distance, the number of moves in a maze with no walls. */
+    Heuristic MANHATTAN = new Heuristic() {
+        public int estimate(int row, int col, int goalRow, int goalCol) {
+            return Math.abs(row - goalRow) + Math.abs(col - goalCol);
+        }
+    };
+
+    /** Always zero, which turns A* into a plain uniform-cost search. */
+    Heuristic NONE = new Heuristic() {
+        public int estimate(int row, int col, int goalRow, int goalCol) {
+            return 0;
+        }
+    };
+
+    /**
+     * Returns an estimate of the number of moves from a cell to the goal.
+     *
+     * @param   row         row of the cell
+     * @param   col         column of the cell
+     * @param   goalRow     row of the goal
+     * @param   goalCol     column of the goal
+     * @return  the estimated number of moves, at least 0
+     */
+    int estimate(int row, int col, int goalRow, int goalCol);
+
+} // end of Heuristic
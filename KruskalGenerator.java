@@ -0,0 +1,116 @@
+/*
+ * class KruskalGenerator
+ *
+ * Random maze generation with Kruskal's algorithm
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+
+
+/**
+ * Generates random perfect mazes (mazes with exactly one path between any two cells)
+ * with Kruskal's algorithm: the interior walls are shuffled once, then each wall is
+ * removed if the cells on either side are not yet connected.
+ */
+final class KruskalGenerator implements MazeGenerator {
+
+    public String name() {
+        return "kruskal";
+    }
+
+
+    public void generate(WallStore walls, int rows, int cols, SplittableRandom rd) {
+
+        // start with every wall in place
+        walls.fill(WallStore.RIGHT | WallStore.BOT);
+
+        carve(walls, cols, 0, rows, rd);
+
+    } // end of generate(WallStore, int, int, SplittableRandom)
+
+
+    /**
+     * Carves a perfect maze into a band of whole rows of a store.
+     * The band's cells must start with every wall present; walls between the
+     * band and the rest of the maze are left alone.
+     *
+     * @param   walls       the store to carve into
+     * @param   cols        number of columns of the maze
+     * @param   firstRow    first row of the band
+     * @param   rows        number of rows in the band; <code>rows * cols</code> must be at most 2<sup>30</sup>
+     * @param   rd          source of randomness
+     */
+    static void carve(WallStore walls, int cols, int firstRow, int rows, SplittableRandom rd) {
+
+        long base = (long) firstRow * cols;
+        int[] list = shuffledWalls(cols, rows, rd);
+        int n = list.length;
+
+        // run Kruskal over the walls: break a wall only if it joins
+        // two cells that are not connected yet
+        DisjointSets ds = new DisjointSets(rows * cols);
+
+        for (int k = 0; k < n && ds.count() > 1; k++) {
+
+            int i = list[k] >> 1;
+            boolean bot = (list[k] & 1) == 1;
+            int j = bot ? i + cols : i + 1;
+
+            if (ds.union(i, j) != -1)
+                walls.clear(base + i, bot ? WallStore.BOT : WallStore.RIGHT);
+
+        } // end of for
+
+    } // end of carve(WallStore, int, int, int, SplittableRandom)
+
+
+    /**
+     * Lists every interior wall of a band of rows once, in random order.
+     * Wall <code>2*i</code> is the right wall of cell <code>i</code> of the band,
+     * counting from its first cell, and wall <code>2*i+1</code> is its bottom wall.
+     *
+     * @param   cols        number of columns of the maze
+     * @param   rows        number of rows in the band; <code>rows * cols</code> must be at most 2<sup>30</sup>
+     * @param   rd          source of randomness
+     * @return  the shuffled walls
+     */
+    static int[] shuffledWalls(int cols, int rows, SplittableRandom rd) {
+
+        int[] list = new int[rows * (cols - 1) + (rows - 1) * cols];
+        int n = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int i = r * cols + c;
+                if (c < cols - 1)
+                    list[n++] = 2 * i;
+                if (r < rows - 1)
+                    list[n++] = 2 * i + 1;
+            }
+        }
+
+        shuffle(list, rd);
+        return list;
+
+    } // end of shuffledWalls(int, int, SplittableRandom)
+
+
+    /**
+     * Shuffles an array in place (Fisher-Yates).
+     *
+     * @param   list    the array to shuffle
+     * @param   rd      source of randomness
+     */
+    static void shuffle(int[] list, SplittableRandom rd) {
+
+        for (int k = list.length - 1; k > 0; k--) {
+            int j = rd.nextInt(k + 1);
+            int tmp = list[k];
+            list[k] = list[j];
+            list[j] = tmp;
+        }
+
+    } // end of shuffle(int[], SplittableRandom)
+
+} // end of KruskalGenerator
@@ -0,0 +1,174 @@
+/*
+ * class MappedWallStore
+ *
+ * File-backed wall storage for Maze
+ * COSC 102, Colgate University
+ */
+
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+
+/**
+ * Keeps the walls of a maze in a memory-mapped region of a file, so mazes
+ * are limited by disk space rather than heap size.
+ * <p>
+ * The region uses the payload layout of <code>MazeFile</code>: cell <code>i</code>
+ * takes the two bits starting at bit <code>2*(i%4)</code> of byte <code>i/4</code>.
+ * A single mapping cannot exceed 2 GB, so the region is mapped as a sequence
+ * of 1 GB chunks.
+ */
+class MappedWallStore implements WallStore {
+
+    /** log2 of the chunk size in bytes. */
+    private static final int CHUNK_BITS = 30;
+
+    /** Size of a chunk in bytes. */
+    private static final long CHUNK = 1L << CHUNK_BITS;
+
+    /** The mapped chunks, in file order. */
+    private final MappedByteBuffer[] chunks;
+
+    /** Number of cells. */
+    private final long cells;
+
+    /** Whether the chunks are mapped for writing. */
+    private final boolean writable;
+
+
+    /**
+     * Maps storage for the given number of cells, starting at <code>offset</code>
+     * in the channel's file.  The mapping stays valid after the channel is closed.
+     *
+     * @param   ch          channel of the file to map; must be readable, and writable if <code>writable</code>
+     * @param   offset      position of the first payload byte in the file
+     * @param   cells       number of cells
+     * @param   writable    <code>true</code> to map the file for reading and writing
+     * @throws IOException  if the file cannot be mapped
+     */
+    MappedWallStore(FileChannel ch, long offset, long cells, boolean writable) throws IOException {
+
+        this.cells = cells;
+        this.writable = writable;
+
+        long bytes = MazeFile.payloadBytes(cells);
+        chunks = new MappedByteBuffer[(int) ((bytes + CHUNK - 1) >>> CHUNK_BITS)];
+
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        for (int k = 0; k < chunks.length; k++) {
+            long start = (long) k << CHUNK_BITS;
+            chunks[k] = ch.map(mode, offset + start, Math.min(CHUNK, bytes - start));
+        }
+
+    } // end of MappedWallStore(FileChannel, long, long, boolean)
+
+
+    public long cells() {
+        return cells;
+    } // end of cells()
+
+
+    public int get(long i) {
+        long b = i >>> 2;
+        return (chunks[(int) (b >>> CHUNK_BITS)].get((int) (b & (CHUNK - 1))) >> ((i & 3) << 1)) & 3;
+    } // end of get(long)
+
+
+    public void set(long i, int bits) {
+        checkWritable();
+        long b = i >>> 2;
+        MappedByteBuffer chunk = chunks[(int) (b >>> CHUNK_BITS)];
+        int pos = (int) (b & (CHUNK - 1));
+        chunk.put(pos, (byte) (chunk.get(pos) | (bits << ((i & 3) << 1))));
+    } // end of set(long, int)
+
+
+    public void clear(long i, int bits) {
+        checkWritable();
+        long b = i >>> 2;
+        MappedByteBuffer chunk = chunks[(int) (b >>> CHUNK_BITS)];
+        int pos = (int) (b & (CHUNK - 1));
+        chunk.put(pos, (byte) (chunk.get(pos) & ~(bits << ((i & 3) << 1))));
+    } // end of clear(long, int)
+
+
+    public synchronized void put(long i, int bits) {
+        checkWritable();
+        long b = i >>> 2;
+        MappedByteBuffer chunk = chunks[(int) (b >>> CHUNK_BITS)];
+        int pos = (int) (b & (CHUNK - 1));
+        int shift = (int) (i & 3) << 1;
+        chunk.put(pos, (byte) ((chunk.get(pos) & ~(3 << shift)) | (bits & 3) << shift));
+    } // end of put(long, int)
+
+
+    public void fill(int bits) {
+
+        checkWritable();
+
+        // repeat the 2-bit code across a block of bytes and copy it in bulk
+        byte[] block = new byte[1 << 16];
+        Arrays.fill(block, (byte) ((bits & 3) * 0x55));
+
+        for (MappedByteBuffer chunk : chunks) {
+            ByteBuffer b = chunk.duplicate();
+            b.clear();
+            while (b.hasRemaining())
+                b.put(block, 0, Math.min(block.length, b.remaining()));
+        }
+
+    } // end of fill(int)
+
+
+    public void read(FileChannel ch, long pos) throws IOException {
+
+        checkWritable();
+
+        long start = pos;
+        for (MappedByteBuffer chunk : chunks) {
+            ByteBuffer b = chunk.duplicate();
+            b.clear();
+            while (b.hasRemaining()) {
+                int n = ch.read(b, pos);
+                if (n < 0)
+                    throw new EOFException(String.format("payload ends after %d of %d bytes",
+                                                         pos - start, MazeFile.payloadBytes(cells)));
+                pos += n;
+            }
+        }
+
+    } // end of read(FileChannel, long)
+
+
+    public void write(FileChannel ch, long pos) throws IOException {
+
+        // the chunks already hold the payload layout, so they are written as they are
+        for (MappedByteBuffer chunk : chunks) {
+            ByteBuffer b = chunk.duplicate();
+            b.clear();
+            while (b.hasRemaining())
+                pos += ch.write(b, pos);
+        }
+
+    } // end of write(FileChannel, long)
+
+
+    public void flush() {
+        if (writable)
+            for (MappedByteBuffer chunk : chunks)
+                chunk.force();
+    } // end of flush()
+
+
+    /*
+     * Rejects changes to a store mapped read-only.
+     */
+    private void checkWritable() {
+        if (!writable)
+            throw new UnsupportedOperationException("maze is mapped read-only");
+    } // end of checkWritable()
+
+} // end of MappedWallStore
@@ -12,7 +12,11 @@
 import java.awt.*;
 import javax.swing.*;
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.zip.*;
 
 
 /**
@@ -25,10 +29,11 @@ import java.util.*;
  * One constructor that reads the maze structure from a file is already implemented.
  * You will have to implement the constructor that generates a random maze of a given number of rows and columns.
  * <p>
- * The <code>solve()</code> method needs to be implemented, and will contain the logic for the maze solver.
- * It should run a depth-first search from the start of the maze (cell [0,0]).
- * As the solver is running, it should update the display with its location using the <code>MazePlay.setState()</code> method.
- * The MazePlay GUI will reflect the solver state whenever this method is called by coloring parts of the maze in the GUI.
+ * The <code>solve()</code> methods run a depth-first search from the start of the maze (cell [0,0]).
+ * As the solver is running, it reports its location to a <code>SolverListener</code>.
+ * When solving from the GUI, the listener forwards each change to <code>MazePlay.setState()</code>,
+ * and the MazePlay GUI reflects the solver state by coloring parts of the maze;
+ * without a listener the solver runs headless and returns a <code>SolveResult</code>.
  *
  * @author Sara Sirota, Yuxin David Huang '16, Colgate University
  */
@@ -40,14 +45,17 @@ public class Maze {
     /** Title of the maze. */
     private String title;
 
+    /** Title the maze was made or loaded with, before any file name was added on saving. */
+    private String name;
+
     /** Number of rows. */
     private int rows;
 
     /** Number of columns. */
     private int cols;
 
-    /** The representation of the maze as an int array. */
-    private int[][] maze;
+    /** The walls of the maze, two bits per cell (see <code>WallStore</code>). */
+    private WallStore maze;
 
 
     /**
@@ -58,154 +66,153 @@ public class Maze {
      */
     public Maze(int rows, int cols) {
 
-        title = String.format("rand(%dx%d)", rows, cols);
+        title = name = String.format("rand(%dx%d)", rows, cols);
         this.rows = rows;
         this.cols = cols;
 
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                maze[r][c] = 0;
-            }
-        }
+        maze = new PackedWallStore(cells(rows, cols));
+        generate(MazeGenerator.KRUSKAL, new SplittableRandom());
 
-        DisjointSet ds = new DisjointSet(rows * cols);
-        Random rd = new Random();
-
-        while (ds.count() != 1) {
-
-            int row1 = rd.nextInt(rows);
-            int col1 = rd.nextInt(cols);
-
-            int row2, col2; // adjacent cell to the random cell picked
-
-            if (row1 == 0 && col1 == 0) {
-
-                // top left
-
-                // pick a random number between 0 and 1.
-                // if 0, then pick the cell to the right;
-                // if 1, then pick the cell to the bottom.
-                if (rd.nextInt(2) == 0) {
-                    row2 = row1;
-                    col2 = col1 + 1;
-                } else {
-                    row2 = row1 + 1;
-                    col2 = col1;
-                }
-            } else if (row1 == 0 && col1 == cols) {
-
-                // top right
-
-                // same way of picking as top left
-                if (rd.nextInt(2) == 0) {
-                    row2 = row1;
-                    col2 = col1 - 1;
-                } else {
-                    row2 = row1 + 1;
-                    col2 = col1;
-                }
-            } else if (row1 = rows && col1 == 0) {
-
-                // bottom left
-
-                if (rd.nextInt(2) == 0) {
-                    row2 = row1;
-                    col2 = col1 + 1;
-                } else {
-                    row2 = row1 - 1;
-                    col2 = col1;
-                }
-            } else if (row1 = rows && col1 == cols) {
-
-                // bottom right
-
-                if (rd.nextInt(2) == 0) {
-                    row2 = row1;
-                    col2 = col1 - 1;
-                } else {
-                    row2 = row1 - 1;
-                    col2 = col1;
-                }
-            } else if (row1 == 0) {
-
-                // top border but not corner
-
-                // 3 choices:
-                // if 0, then choose left
-                // if 1, then choose bottom
-                // if 2, then choose right
-                int rand = rd.nextInt(3);
-                if (rand == 0) {
-                    row2 = row1;
-                    col2 = col1 - 1;
-                } else if (rand == 1) {
-                    row2 = row1 + 1;
-                    col2 = col1;
-                } else {
-                    row2 = row1;
-                    col2 = col1 + 1;
-                }
-            } else if (row1 == rows) {
-
-                // bottom border but not corner
-
-            } else if (col1 == 0) {
-
-                // left border but not corner
-
-            } else if (col1 == cols) {
-
-                // right border but not corner
+    } // end of Maze(int, int)
 
-            } else {
 
-                // inside
+    /**
+     * Creates a randomly generated maze of a given size from a seed.
+     * The same seed and size always give the same maze.
+     *
+     * @param   rows           the maze height (vertical dimension, number of rows)
+     * @param   cols           the maze width (horizontal dimension, number of columns)
+     * @param   seed           seed for all random choices
+     */
+    public Maze(int rows, int cols, long seed) {
 
-            }
+        this(rows, cols, MazeGenerator.KRUSKAL, seed);
 
-            // finished picking a random wall
-
-            // breaking wall:
-
-            if (row2 > row1) {
-                if (getBot(row1, col1) == true) {
-                    setBot(row1, col1, false);
-                    ds.union(row1 * cols + col1, row2 * cols + col2);
-                }
-            } else if (row2 < row1) {
-                // fill
-            } else if (col2 < col1) {
-                // fill
-            } else if (col2 > col1) {
-                // fill
-            }
+    } // end of Maze(int, int, long)
 
-        } // end of while
 
-    } // end of Maze(int, int)
+    /**
+     * Creates a maze of a given size with a given generation algorithm, from a seed.
+     * The same generator, seed and size always give the same maze.
+     *
+     * @param   rows           the maze height (vertical dimension, number of rows)
+     * @param   cols           the maze width (horizontal dimension, number of columns)
+     * @param   gen            the algorithm that carves the maze
+     * @param   seed           seed for all random choices
+     */
+    public Maze(int rows, int cols, MazeGenerator gen, long seed) {
+
+        title = name = String.format("rand(%dx%d)", rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+
+        maze = new PackedWallStore(cells(rows, cols));
+        generate(gen, new SplittableRandom(seed));
+
+    } // end of Maze(int, int, MazeGenerator, long)
+
+
+    /**
+     * Creates a randomly generated maze of a given size, using several threads.
+     * <p>
+     * The maze is generated with Kruskal's algorithm in horizontal bands of at least
+     * 32 rows, each on its own thread, and a short final pass over the walls between
+     * bands joins them.  The result is a perfect maze drawn the same way as one from
+     * <code>Maze(int, int)</code>, with as many openings between bands as between
+     * any two rows (see <code>ParallelKruskalGenerator</code>).
+     *
+     * @param   rows        the maze height (vertical dimension, number of rows)
+     * @param   cols        the maze width (horizontal dimension, number of columns)
+     * @param   threads     the number of threads to use
+     * @return  the new maze
+     */
+    public static Maze generateParallel(int rows, int cols, int threads) {
+
+        return generateParallel(rows, cols, threads, new SplittableRandom().nextLong());
+
+    } // end of generateParallel(int, int, int)
+
+
+    /**
+     * Creates a randomly generated maze of a given size from a seed, using several threads.
+     * The same seed and size always give the same maze, whatever the number of threads.
+     * It is not the maze <code>Maze(int, int, long)</code> gives for that seed, since the
+     * two are generated differently (see <code>generateParallel(int, int, int)</code>).
+     *
+     * @param   rows        the maze height (vertical dimension, number of rows)
+     * @param   cols        the maze width (horizontal dimension, number of columns)
+     * @param   threads     the number of threads to use
+     * @param   seed        seed for all random choices
+     * @return  the new maze
+     * @throws IllegalArgumentException if the maze has no cells or more than
+     *                                  <code>Integer.MAX_VALUE/2</code> of them
+     */
+    public static Maze generateParallel(int rows, int cols, int threads, long seed) {
+
+        Maze m = new Maze(String.format("rand(%dx%d)", rows, cols), rows, cols, new PackedWallStore(cells(rows, cols)));
+        new ParallelKruskalGenerator(threads).generate(m.maze, rows, cols, new SplittableRandom(seed));
+
+        return m;
+
+    } // end of generateParallel(int, int, int, long)
 
 
     /**
      * Creates a maze object from a file.
+     * <p>
+     * The file may be a text maze file, as written by <code>save()</code> (optionally
+     * gzip-compressed), or a binary maze file, as written by <code>saveBinary()</code>;
+     * the format is detected from the first bytes of the file.
      *
      * @param   filename  The file containing the maze to load.
      * @throws IOException  if an input/output error occurs while trying to read the given input file
      */
     public Maze(String filename) throws IOException {
 
-        Scanner scan = null;
+        FileChannel ch;
 
         try {
-            scan = new Scanner(new FileReader(filename));
+            ch = FileChannel.open(Paths.get(filename));
         } catch (IOException e) {
             throw new IOException(prog + ": error opening filename " + filename);
         }
 
+        try (ch) {
+            if (MazeFile.isBinary(ch))
+                loadBinary(ch, filename);
+            else if (isGzip(ch))
+                loadText(Channels.newChannel(new GZIPInputStream(Channels.newInputStream(ch), 1 << 16)), filename);
+            else
+                loadText(ch, filename);
+        }
+
+    } // end of Maze(String)
+
 
-        if (!scan.hasNextLine())
+    /*
+     * Indicates whether a file starts with the gzip magic bytes.
+     */
+    private static boolean isGzip(FileChannel ch) throws IOException {
+
+        ByteBuffer buf = ByteBuffer.allocate(2);
+        ch.read(buf, 0);
+
+        return buf.position() == 2 && buf.get(0) == (byte) 0x1f && buf.get(1) == (byte) 0x8b;
+
+    } // end of isGzip(FileChannel)
+
+
+    /*
+     * Reads a text maze file into memory; the channel is positioned at its start.
+     */
+    private void loadText(ReadableByteChannel ch, String filename) throws IOException {
+
+        MazeTextReader in = new MazeTextReader(ch);
+
+        if (in.atEnd())
             throw new IOException(prog + ": file " + filename + " is empty");
 
-        String[] line = scan.nextLine().split("\\s+");
+        String[] line = in.readLine().split("\\s+");
         if (line.length < 3 || !(line[0].equals("maze")))
             throw new IOException(prog + ": " + filename + " is not a maze");
 
@@ -221,35 +228,199 @@ public class Maze {
 
         this.rows = h;
         this.cols = w;
+        maze = new PackedWallStore((long) w * h);
 
-        for (int i = 0; i < w * h; i++) {
+        long i = 0;
+        for (int row = 0; row < h; row++) {
+            for (int col = 0; col < w; col++, i++) {
 
-            int col = i%w, row = i/w;
+                if (in.atEnd())
+                    throw new IOException(prog + ": " + filename + " missing cell descriptions starting at [" + row + "," + col + "]");
 
-            if (!scan.hasNextLine())
-                throw new IOException(prog + ": " + filename + " missing cell descriptions starting at [" + row + "," + col + "]");
+                int code = in.readCell();
+                if (code == MazeTextReader.BAD)
+                    throw new IOException(prog + ": " + filename + " contains bad description for cell[" + row + "," + col + "]");
 
-            String cell[] = scan.nextLine().split("\\s+");
-            if (cell.length < 2)
-                throw new IOException(prog + ": " + filename + " contains bad description for cell[" + row + "," + col + "]");
+                // the store starts with no walls, so only walls that exist need setting
+                if (code != 0)
+                    maze.set(i, code);
+            }
+        } // end of for
 
-            boolean r, b;
+        title = name = filename;
 
-            try {
-                r = (Integer.parseInt(cell[0]) != 0) ? true : false;
-                b = (Integer.parseInt(cell[1]) != 0) ? true : false;
-            } catch (NumberFormatException e) {
-                throw new IOException(prog + ": " + filename + " contains bad description for cell[" + row + "," + col + "]");
-            }
+    } // end of loadText(ReadableByteChannel, String)
 
-            setRight(row, col, r);
-            setBot(row, col, b);
 
-        } // end of for
+    /*
+     * Reads a binary maze file into memory; the channel is positioned anywhere.
+     */
+    private void loadBinary(FileChannel ch, String filename) throws IOException {
 
-        title = filename;
+        MazeFile header = MazeFile.read(ch, filename);
 
-    } // end of Maze(String)
+        this.rows = header.height;
+        this.cols = header.width;
+        maze = new PackedWallStore((long) cols * rows);
+        try {
+            maze.read(ch, header.payload);
+        } catch (EOFException e) {
+            // the file shrank after its header was checked
+            throw new IOException(prog + ": " + filename + " is truncated: " + e.getMessage(), e);
+        }
+
+        title = name = header.title.isEmpty() ? filename : header.title;
+
+    } // end of loadBinary(FileChannel, String)
+
+
+    /*
+     * Creates a maze around existing wall storage.
+     */
+    private Maze(String title, int rows, int cols, WallStore maze) {
+
+        this.title = name = title;
+        this.rows = rows;
+        this.cols = cols;
+        this.maze = maze;
+
+    } // end of Maze(String, int, int, WallStore)
+
+
+    /**
+     * Creates a randomly generated maze whose walls are kept in a memory-mapped file
+     * rather than on the heap.
+     * <p>
+     * The file is written in the binary maze format and is updated in place as the
+     * maze changes, so it can later be reopened with <code>openMapped()</code>.
+     * The walls take a quarter of a byte per cell in the file.  The maze is generated
+     * row by row with <code>EllerGenerator</code>, so the heap needed depends only on the
+     * width and mazes with more than 2<sup>31</sup> cells can be made.
+     * <p>
+     * The solvers still index cells with an <code>int</code> and keep their visited and
+     * parent sets on the heap (a few bits per cell, and 4 more bytes per cell for A*),
+     * so only mazes of up to 2<sup>31</sup> cells can be solved, and only with that much heap.
+     *
+     * @param   filename    the file in which to keep the maze.  If the file exists, it will be overwritten.
+     * @param   rows        the maze height (vertical dimension, number of rows)
+     * @param   cols        the maze width (horizontal dimension, number of columns)
+     * @return  the new maze
+     * @throws IOException  if the file cannot be created or mapped
+     */
+    public static Maze createMapped(String filename, int rows, int cols) throws IOException {
+
+        return createMapped(filename, rows, cols, new SplittableRandom().nextLong());
+
+    } // end of createMapped(String, int, int)
+
+
+    /**
+     * Creates a randomly generated maze from a seed, kept in a memory-mapped file.
+     * For a given seed the file is the same as the one written by
+     * <code>EllerGenerator.saveBinary()</code>.
+     *
+     * @param   filename    the file in which to keep the maze.  If the file exists, it will be overwritten.
+     * @param   rows        the maze height (vertical dimension, number of rows)
+     * @param   cols        the maze width (horizontal dimension, number of columns)
+     * @param   seed        seed for all random choices
+     * @return  the new maze
+     * @throws IOException  if the file cannot be created or mapped
+     * @see     #createMapped(String, int, int)
+     */
+    public static Maze createMapped(String filename, int rows, int cols, long seed) throws IOException {
+
+        if (rows < 1)
+            throw new IllegalArgumentException("cannot generate a maze with " + rows + " rows");
+
+        EllerGenerator gen = new EllerGenerator(cols, seed);
+        byte[] walls = new byte[cols];
+        MazeFile header = new MazeFile(cols, rows, String.format("rand(%dx%d)", rows, cols));
+        Maze m = new Maze(header.title, rows, cols, map(filename, header, true, true));
+
+        // the mapped file starts out zeroed, so setting each cell's walls is enough
+        long cell = 0;
+        for (int r = 0; r < rows; r++) {
+            gen.nextRow(r == rows - 1, walls);
+            for (int c = 0; c < cols; c++, cell++)
+                m.maze.set(cell, walls[c]);
+        }
+        m.flush();
+
+        return m;
+
+    } // end of createMapped(String, int, int, long)
+
+
+    /**
+     * Opens a maze saved in the binary maze format by mapping its file into memory, read-only.
+     * Nothing is parsed beyond the header, so opening takes the same time for any size of maze.
+     * The file only needs to be readable; changing the walls of the maze throws
+     * <code>UnsupportedOperationException</code>.
+     *
+     * @param   filename    the binary maze file to open
+     * @return  the maze kept in the file
+     * @throws IOException  if the file cannot be opened or is not a binary maze file
+     * @see     #openMapped(String, boolean)
+     */
+    public static Maze openMapped(String filename) throws IOException {
+
+        return openMapped(filename, false);
+
+    } // end of openMapped(String)
+
+
+    /**
+     * Opens a maze saved in the binary maze format by mapping its file into memory.
+     * If <code>writable</code> is <code>true</code>, changes to the maze are written back to the file,
+     * which must then be writable too.
+     *
+     * @param   filename    the binary maze file to open
+     * @param   writable    <code>true</code> to allow changes to the maze
+     * @return  the maze kept in the file
+     * @throws IOException  if the file cannot be opened or is not a binary maze file
+     */
+    public static Maze openMapped(String filename, boolean writable) throws IOException {
+
+        MazeFile header;
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            header = MazeFile.read(ch, filename);
+        } catch (NoSuchFileException e) {
+            throw new IOException("MazePlay: error opening filename " + filename);
+        }
+
+        String title = header.title.isEmpty() ? filename : header.title;
+        return new Maze(title, header.height, header.width, map(filename, header, false, writable));
+
+    } // end of openMapped(String, boolean)
+
+
+    /*
+     * Maps the payload of a binary maze file, writing a new header and sizing the
+     * file first if create is true.  A created file is always mapped writable.
+     */
+    private static WallStore map(String filename, MazeFile header, boolean create, boolean writable)
+            throws IOException {
+
+        Set<StandardOpenOption> opts = EnumSet.of(StandardOpenOption.READ);
+        if (writable || create)
+            opts.add(StandardOpenOption.WRITE);
+        if (create) {
+            opts.add(StandardOpenOption.CREATE);
+            opts.add(StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), opts)) {
+
+            if (create) {
+                header.write(ch);
+                // extend the file to its full size; the gap reads back as zeros
+                ch.write(ByteBuffer.allocate(1), header.fileSize() - 1);
+            }
+
+            return new MappedWallStore(ch, header.payload, (long) header.width * header.height, writable || create);
+        }
+
+    } // end of map(String, MazeFile, boolean, boolean)
 
 
     /**
@@ -274,6 +445,8 @@ public class Maze {
 
     /**
      * Gets the title of the maze, used in the window's title bar.
+     * Once the maze has been saved, the title ends with <code>:</code> and the name of
+     * the file it was last saved to.
      *
      * @return the maze title
      */
@@ -294,7 +467,7 @@ public class Maze {
      */
     public boolean getRight(int row, int col) throws IndexOutOfBoundsException {
 
-        return maze[row][col] == 2 || maze[row][col] == 3;
+        return (maze.get(cell(row, col)) & WallStore.RIGHT) != 0;
 
     } // end of getRight(int, int)
 
@@ -311,7 +484,7 @@ public class Maze {
      */
     public boolean getBot(int row, int col) throws IndexOutOfBoundsException {
 
-        return maze[row][col] == 1 || maze[row][col] == 3;
+        return (maze.get(cell(row, col)) & WallStore.BOT) != 0;
 
     } // end of getBot(int, int)
 
@@ -324,18 +497,14 @@ public class Maze {
      * @param   b   <code>true</code> if the right wall should exist, <code>false</code> if it should not exist
      * @throws  IndexOutOfBoundsException   if <code>col &lt; 0</code>, <code>row &lt; 0</code>,
      *                      <code>col &gt; = width</code>, or <code>row &gt;= height</code>
+     * @throws  UnsupportedOperationException   if the maze was opened read-only with <code>openMapped()</code>
      */
     public void setRight(int row, int col, boolean b) throws IndexOutOfBoundsException {
 
-        if (b) {
-            if (maze[row][col] == 0 || maze[row][col] == 1) {
-                maze[row][col] += 2;
-            }
-        } else {
-            if (maze[row][col] == 2 || maze[row][col] == 3) {
-                maze[row][col] -= 2;
-            }
-        }
+        if (b)
+            maze.set(cell(row, col), WallStore.RIGHT);
+        else
+            maze.clear(cell(row, col), WallStore.RIGHT);
 
     } // end of setRight(int, int, boolean)
 
@@ -348,106 +517,279 @@ public class Maze {
      * @param   b   <code>true</code> if the bottom wall should exist, <code>false</code> if it should not exist
      * @throws  IndexOutOfBoundsException   if <code>col &lt; 0</code>, <code>row &lt; 0</code>,
      *                      <code>col &gt; = width</code>, or <code>row &gt;= height</code>
+     * @throws  UnsupportedOperationException   if the maze was opened read-only with <code>openMapped()</code>
      */
     public void setBot(int row, int col, boolean b) throws IndexOutOfBoundsException {
 
-        if (b) {
-            if (maze[row][col] == 0 || maze[row][col] == 2) {
-                maze[row][col]++;
-            }
-        } else {
-            if (maze[row][col] == 1 || maze[row][col] == 3) {
-                maze[row][col]--;
-            }
-        }
+        if (b)
+            maze.set(cell(row, col), WallStore.BOT);
+        else
+            maze.clear(cell(row, col), WallStore.BOT);
 
     } // end of setBot(int, int, boolean)
 
 
+    /*
+     * Returns the wall code of cell [row,col], a combination of WallStore.BOT and
+     * WallStore.RIGHT, without checking its bounds.  MazePlay draws from this
+     * rather than copying the walls.
+     */
+    int walls(int row, int col) {
+
+        return maze.get((long) row * cols + col);
+
+    } // end of walls(int, int)
+
+
+    /*
+     * Replaces the walls of cell [row,col] with a wall code in one atomic step,
+     * without checking its bounds, so that MazePlay can take edits from several
+     * threads at once (see WallStore.put()).
+     */
+    void setWalls(int row, int col, int code) {
+
+        maze.put((long) row * cols + col, code);
+
+    } // end of setWalls(int, int, int)
+
+
     /**
-     * Runs a depth-first search to explore the maze, starting at the top-left cell (row 0, column 0).
+     * Replaces all the walls of this maze with those of another maze of the same size,
+     * in one bulk copy where both keep their walls in memory.
      *
+     * @param   from    the maze whose walls to copy
+     * @throws  IllegalArgumentException   if the mazes differ in width or height
+     */
+    public void copyWalls(Maze from) throws IllegalArgumentException {
+
+        if (from.rows != rows || from.cols != cols)
+            throw new IllegalArgumentException(String.format("cannot copy the walls of a %dx%d maze into a %dx%d maze",
+                                                             from.rows, from.cols, rows, cols));
+
+        maze.copyFrom(from.maze);
+
+    } // end of copyWalls(Maze)
+
+
+    /*
+     * Returns the linear index of cell [row,col], checking its bounds.
+     */
+    private long cell(int row, int col) throws IndexOutOfBoundsException {
+
+        if (row < 0 || row >= rows || col < 0 || col >= cols)
+            throw new IndexOutOfBoundsException(String.format("Cell [%d,%d] does not exist", row, col));
+
+        return (long) row * cols + col;
+
+    } // end of cell(int, int)
+
+
+    /*
+     * Returns the number of cells of a rows x cols maze that can be generated.
+     */
+    private static long cells(int rows, int cols) {
+
+        if (rows < 1 || cols < 1 || (long) rows * cols > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException(String.format("cannot generate a %dx%d maze", rows, cols));
+
+        return (long) rows * cols;
+
+    } // end of cells(int, int)
+
+
+    /*
+     * Fills the wall store with a random perfect maze made by a generator.
+     */
+    private void generate(MazeGenerator gen, SplittableRandom rd) {
+
+        gen.generate(maze, rows, cols, rd);
+
+    } // end of generate(MazeGenerator, SplittableRandom)
+
+
+    /**
+     * Runs a depth-first search to explore the maze, starting at the top-left cell (row 0, column 0).
      * <p>
      * The parameter <code>player</code> given to this method gives access to the <code>MazePlay</code> object that represents the GUI for the maze.
-     * You should use the <code>setState()</code> function of <code>MazePlay</code> to keep track of where your solver is going during its exploration.
-     * This method is also hooked into the thread-control mechanism that keeps the solver running.
-     *
+     * Every cell the solver enters or backs out of is reported to the GUI through <code>setState()</code>,
+     * which is also hooked into the thread-control mechanism that keeps the solver running.
+     * <p>
+     * If the player window is closed, <code>setState()</code> throws an unchecked exception
+     * that ends the search, and this method passes it on.
      *
      * @param   player          A reference to the MazePlay object that represents the GUI displaying the maze
-     * @throws ThreadDeath  if the player window gets closed during execution of the search
      */
-    public void solve(MazePlay player) throws ThreadDeath {
+    public void solve(final MazePlay player) {
 
-        int currRow = 0;
-        int currCol = 0;
-        player.setState(currRow, currCol, MazePlay.F);
+        solve(new SolverListener() {
+            public void setState(int row, int col, int state) {
+                player.setState(row, col, state);
+            }
+        });
 
-        while (!(currRow == rows - 1 && currCol == cols - 1)) {
+    } // end of solve(MazePlay)
 
-            if (getBot(currRow, currCol) == true) {
 
-            }
+    /**
+     * Runs a depth-first search from the top-left cell (row 0, column 0) to the
+     * bottom-right cell, reporting every state change to a listener.
+     * <p>
+     * The search is the one <code>solve(MazePlay)</code> runs, but it does not need a GUI:
+     * with a <code>null</code> listener it runs at full speed.
+     *
+     * @param   listener    receives every state change, or <code>null</code>
+     * @return  the path found and the forward and backward step counts
+     */
+    public SolveResult solve(SolverListener listener) {
 
-        }
+        return solve(0, 0, rows - 1, cols - 1, listener);
 
-    } // end of solve(MazePlay)
+    } // end of solve(SolverListener)
 
 
-    private void recursiveSolveHelper(int row, int col, MazePlay player) {
-    	player.setState(row, col, MazePlay.F);
-        if (row == rows - 1 && col == cols - 1) {
-        	return;
-        } else {
-        	if (row == 0 && col == 0) {
+    /**
+     * Runs a depth-first search between any two cells, reporting every state change to a listener.
+     *
+     * @param   startRow    row of the cell to start from
+     * @param   startCol    column of the cell to start from
+     * @param   goalRow     row of the cell to reach
+     * @param   goalCol     column of the cell to reach
+     * @param   listener    receives every state change, or <code>null</code>
+     * @return  the path found, the forward and backward step counts, and the number of cells expanded
+     * @throws  IndexOutOfBoundsException   if either cell is outside the maze
+     */
+    public SolveResult solve(int startRow, int startCol, int goalRow, int goalCol, SolverListener listener) {
 
-                // top left
+        MazeSolver s = new MazeSolver(maze, rows, cols, listener);
+        return s.dfs((int) cell(startRow, startCol), (int) cell(goalRow, goalCol));
 
-                if (getRight(row, col)) {
-                	recursiveSolveHelper(row, col + 1, player)
-                }
+    } // end of solve(int, int, int, int, SolverListener)
 
-            } else if (row == 0 && col == cols) {
 
-                // top right
+    /**
+     * Runs a depth-first search from the top-left cell to the bottom-right cell without reporting its progress.
+     * Shorthand for <code>solve((SolverListener) null)</code>.
+     *
+     * @return  the path found and the forward and backward step counts
+     */
+    public SolveResult solve() {
 
-            } else if (row = rows && col == 0) {
+        return solve((SolverListener) null);
 
-                // bottom left
+    } // end of solve()
 
-            } else if (row = rows && col == cols) {
 
-                // bottom right
+    /**
+     * Runs a breadth-first search from the top-left cell to the bottom-right cell.
+     * <p>
+     * Unlike <code>solve()</code>, which finds some path, this finds a shortest path, which
+     * matters for mazes with loops (such as mazes edited with <code>setRight()</code> or
+     * <code>setBot()</code>).  Each cell is reported as <code>F</code> when the search expands it.
+     *
+     * @param   listener    receives every state change, or <code>null</code>
+     * @return  a shortest path; its forward step count is the number of cells expanded
+     */
+    public SolveResult solveShortest(SolverListener listener) {
 
-            } else if (row == 0) {
+        return solveShortest(0, 0, rows - 1, cols - 1, listener);
 
-                // top border but not corner
+    } // end of solveShortest(SolverListener)
 
-            } else if (row == rows) {
 
-                // bottom border but not corner
+    /**
+     * Runs a breadth-first search between any two cells.
+     *
+     * @param   startRow    row of the cell to start from
+     * @param   startCol    column of the cell to start from
+     * @param   goalRow     row of the cell to reach
+     * @param   goalCol     column of the cell to reach
+     * @param   listener    receives every state change, or <code>null</code>
+     * @return  a shortest path and the number of cells expanded
+     * @throws  IndexOutOfBoundsException   if either cell is outside the maze
+     */
+    public SolveResult solveShortest(int startRow, int startCol, int goalRow, int goalCol, SolverListener listener) {
 
-            } else if (col == 0) {
+        MazeSolver s = new MazeSolver(maze, rows, cols, listener);
+        return s.bfs((int) cell(startRow, startCol), (int) cell(goalRow, goalCol));
 
-                // left border but not corner
+    } // end of solveShortest(int, int, int, int, SolverListener)
 
-            } else if (col == cols) {
 
-                // right border but not corner
+    /**
+     * Runs an A* search between any two cells.
+     * <p>
+     * The search expands cells in order of distance travelled plus the heuristic's estimate
+     * of the distance left, so on large mazes it usually expands far fewer cells than a
+     * breadth-first search.  With <code>Heuristic.MANHATTAN</code> the path found is a shortest one.
+     *
+     * @param   startRow    row of the cell to start from
+     * @param   startCol    column of the cell to start from
+     * @param   goalRow     row of the cell to reach
+     * @param   goalCol     column of the cell to reach
+     * @param   h           estimate of the distance to the goal
+     * @param   listener    receives every state change, or <code>null</code>
+     * @return  the path found and the number of cells expanded
+     * @throws  IndexOutOfBoundsException   if either cell is outside the maze
+     */
+    public SolveResult solveAStar(int startRow, int startCol, int goalRow, int goalCol, Heuristic h, SolverListener listener) {
 
-            } else {
+        MazeSolver s = new MazeSolver(maze, rows, cols, listener);
+        return s.astar((int) cell(startRow, startCol), (int) cell(goalRow, goalCol), h);
 
-                // inside
+    } // end of solveAStar(int, int, int, int, Heuristic, SolverListener)
 
-            }
-        }
 
-    }
+    /**
+     * Runs a breadth-first search from both cells at once, stopping when the two searches meet.
+     *
+     * @param   startRow    row of the cell to start from
+     * @param   startCol    column of the cell to start from
+     * @param   goalRow     row of the cell to reach
+     * @param   goalCol     column of the cell to reach
+     * @param   listener    receives every state change, or <code>null</code>
+     * @return  a shortest path and the number of cells expanded by both searches
+     * @throws  IndexOutOfBoundsException   if either cell is outside the maze
+     */
+    public SolveResult solveBidirectional(int startRow, int startCol, int goalRow, int goalCol, SolverListener listener) {
+
+        MazeSolver s = new MazeSolver(maze, rows, cols, listener);
+        return s.bidirectional((int) cell(startRow, startCol), (int) cell(goalRow, goalCol));
+
+    } // end of solveBidirectional(int, int, int, int, SolverListener)
+
+
+    /**
+     * Runs a breadth-first search from the top-left cell to the bottom-right cell without reporting its progress.
+     * Shorthand for <code>solveShortest(null)</code>.
+     *
+     * @return  a shortest path; its forward step count is the number of cells expanded
+     */
+    public SolveResult solveShortest() {
+
+        return solveShortest(null);
+
+    } // end of solveShortest()
+
+
+    /**
+     * Writes any changes to a maze created by <code>createMapped()</code> or
+     * <code>openMapped()</code> back to its file.
+     * Does nothing for mazes kept in memory.
+     *
+     * @throws IOException  if the changes cannot be written
+     */
+    public void flush() throws IOException {
+
+        maze.flush();
+
+    } // end of flush()
 
 
     /**
      * Saves a maze object to a file.
      * <p>
-     * <b>This method has already been implemented.</b>
+     * If <code>filename</code> ends in <code>.gz</code>, the text is compressed with gzip
+     * as it is written; the <code>Maze(String)</code> constructor reads such files back.
      *
      *
      * @param   filename  The file in which to store the maze.  If the file exists, it will be overwritten.
@@ -455,32 +797,77 @@ public class Maze {
      */
     public void save(String filename) throws IOException {
 
-        PrintWriter pw = new PrintWriter(filename);
+        try (OutputStream out = new FileOutputStream(filename)) {
+            if (filename.endsWith(".gz")) {
+                GZIPOutputStream gz = gzip(out);
+                save(gz);
+                gz.finish();
+            } else {
+                save(out);
+            }
+        }
+
+        title = String.format("%s:%s", name, filename);
 
-        int w = width();
-        int h = height();
+    } // end of save(String)
 
-        pw.printf("maze %d %d%n", w, h);
 
-        for (int row = 0; row < h; row++) {
-            for (int col = 0; col < w; col++) {
-                try {
-                    int r = getRight(row, col) ? 1 : 0;
-                    int b = getBot(row, col) ? 1 : 0;
-                    pw.printf("%d %d%n", r, b);
-                } catch (IndexOutOfBoundsException e) {
-                    pw.println();
-                    String err = String.format("%s: error while writing file at cell [%d,%d]", prog, row, col);
-                    pw.println(err);
-                    pw.close();
-                    throw new IOException(err);
-                }
+    /*
+     * Returns a gzip stream for writing maze text to out, set up the same way
+     * wherever .gz maze files are written.
+     */
+    static GZIPOutputStream gzip(OutputStream out) throws IOException {
+
+        // the text is highly redundant, so the fastest level compresses it nearly as well
+        return new GZIPOutputStream(out, 1 << 16) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
             }
+        };
+
+    } // end of gzip(OutputStream)
+
+
+    /**
+     * Writes a maze object to a stream in the text maze format, as <code>save(String)</code> does.
+     * The stream is flushed but not closed.
+     *
+     * @param   out  The stream to which to write the maze.
+     * @throws IOException  if an error occurs while trying to write the maze
+     */
+    public void save(OutputStream out) throws IOException {
+
+        new MazeTextWriter(out).write(maze, cols, rows);
+
+    } // end of save(OutputStream)
+
+
+    /**
+     * Saves a maze object to a file in the binary maze format.
+     * <p>
+     * The binary format stores the dimensions and title of the maze followed by its walls
+     * packed at two bits per cell, so it is about 16 times smaller than the text format
+     * and is written without any formatting.
+     * The file can be read back with the <code>Maze(String)</code> constructor or
+     * mapped with <code>openMapped()</code>.
+     * The title stored is the one the maze was made or loaded with, without the file
+     * names that saving adds to <code>title()</code>.
+     *
+     * @param   filename  The file in which to store the maze.  If the file exists, it will be overwritten.
+     * @throws IOException  if an error occurs while trying to write the maze to file
+     */
+    public void saveBinary(String filename) throws IOException {
+
+        MazeFile header = new MazeFile(cols, rows, name);
+
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            header.write(ch);
+            maze.write(ch, header.payload);
         }
-        pw.close();
 
-        title += String.format(":%s", filename);
+        title = String.format("%s:%s", name, filename);
 
-    } // end of save(String)
+    } // end of saveBinary(String)
 
 } // end of Maze
@@ -0,0 +1,411 @@
+/*
+ * class MazeBatch
+ *
+ * Headless batch generation and solving of mazes
+ * COSC 102, Colgate University
+ */
+
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Generates or loads many mazes, solves them, and writes the results, without a window.
+ * <p>
+ * The mazes are processed on a pool of worker threads.  A line of timings per
+ * maze goes to a CSV file, in the order of the mazes, whatever order the workers
+ * finish them in:
+ * <pre>
+ *      name,rows,cols,source,seed,solver,load_ms,solve_ms,save_ms,solved,length,expanded
+ * </pre>
+ * <tt>source</tt> is the generator, or <tt>file</tt> for a loaded maze, and
+ * <tt>load_ms</tt> the time taken to generate or load it.  Generated mazes get
+ * their seeds, in order, from a generator seeded with <tt>-s</tt>, so any one of
+ * them can be made again with <tt>MazePlay -r <i>rows</i> <i>cols</i> -a
+ * <i>algorithm</i> -s <i>seed</i></tt>.
+ */
+public class MazeBatch {
+
+    /** Header line of the CSV file. */
+    private static final String HEADER =
+        "name,rows,cols,source,seed,solver,load_ms,solve_ms,save_ms,solved,length,expanded";
+
+
+    /** One maze to generate or load, solve, and save. */
+    private static class Job implements Callable<String> {
+
+        private final String name;
+        private final Path file;
+        private final int rows;
+        private final int cols;
+        private final MazeGenerator gen;
+        private final long seed;
+        private final String solver;
+        private final Path out;
+        private final String format;
+        private final boolean verify;
+
+        Job(String name, Path file, int rows, int cols, MazeGenerator gen, long seed,
+            String solver, Path out, String format, boolean verify) {
+
+            this.name = name;
+            this.file = file;
+            this.rows = rows;
+            this.cols = cols;
+            this.gen = gen;
+            this.seed = seed;
+            this.solver = solver;
+            this.out = out;
+            this.format = format;
+            this.verify = verify;
+
+        } // end of Job(String, Path, int, int, MazeGenerator, long, String, Path, String, boolean)
+
+        /*
+         * Processes the maze and returns its line of the CSV file.
+         */
+        public String call() throws IOException {
+
+            long t0 = System.nanoTime();
+            Maze m = file == null ? new Maze(rows, cols, gen, seed) : new Maze(file.toString());
+
+            long t1 = System.nanoTime();
+            SolveResult r = solve(m, solver);
+
+            long t2 = System.nanoTime();
+            if (out != null) {
+                if (file == null) {
+                    if (format.equals("binary"))
+                        m.saveBinary(out.resolve(name + ".mazb").toString());
+                    else
+                        m.save(out.resolve(name + (format.equals("gzip") ? ".maze.gz" : ".maze")).toString());
+                }
+                savePath(r, out.resolve(name + ".path"));
+                if (verify && r.solved())
+                    checkPath(m, out.resolve(name + ".path"));
+            }
+            long t3 = System.nanoTime();
+
+            return String.format(Locale.ROOT, "%s,%d,%d,%s,%s,%s,%.3f,%.3f,%.3f,%b,%d,%d",
+                                 csvField(name), m.height(), m.width(),
+                                 file == null ? gen.name() : "file", file == null ? Long.toString(seed) : "",
+                                 solver, (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6,
+                                 r.solved(), r.length(), r.expanded());
+
+        } // end of call()
+
+    } // end of Job
+
+
+    /*
+     * Quotes a CSV field if it holds a comma, a quote or a line break, doubling its quotes.
+     */
+    private static String csvField(String s) {
+
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0)
+            return s;
+
+        return '"' + s.replace("\"", "\"\"") + '"';
+
+    } // end of csvField(String)
+
+
+    /**
+     * Solves a maze from its top-left to its bottom-right cell.
+     *
+     * @param   m       the maze
+     * @param   solver  <tt>dfs</tt>, <tt>bfs</tt>, <tt>astar</tt> or <tt>bidirectional</tt>
+     * @return  the result of the solver
+     */
+    static SolveResult solve(Maze m, String solver) {
+
+        int gr = m.height() - 1;
+        int gc = m.width() - 1;
+
+        switch (solver) {
+            case "dfs":             return m.solve(0, 0, gr, gc, null);
+            case "bfs":             return m.solveShortest(0, 0, gr, gc, null);
+            case "astar":           return m.solveAStar(0, 0, gr, gc, Heuristic.MANHATTAN, null);
+            case "bidirectional":   return m.solveBidirectional(0, 0, gr, gc, null);
+            default:                throw new IllegalArgumentException("unknown solver " + solver);
+        }
+
+    } // end of solve(Maze, String)
+
+
+    /*
+     * Writes a solution path: a "path length" line, length being the number of moves,
+     * then one "row col" line for each cell from start to goal inclusive.  An
+     * unsolved maze gets a single "unsolved" line.
+     */
+    private static void savePath(SolveResult r, Path file) throws IOException {
+
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            if (!r.solved()) {
+                w.write("unsolved");
+                w.newLine();
+                return;
+            }
+
+            w.write("path " + r.length());
+            w.newLine();
+            for (int i = 0; i <= r.length(); i++) {
+                w.write(r.row(i) + " " + r.col(i));
+                w.newLine();
+            }
+        }
+
+    } // end of savePath(SolveResult, Path)
+
+
+    /**
+     * Reads back a path written for a maze and checks that it runs from the top-left
+     * to the bottom-right cell, each move going to an adjacent cell through an open wall.
+     *
+     * @param   m       the maze
+     * @param   file    the path file
+     * @throws IOException  if the file cannot be read or does not hold such a path
+     */
+    static void checkPath(Maze m, Path file) throws IOException {
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        String bad = file + " does not hold a path through the maze";
+
+        int moves;
+        try {
+            moves = Integer.parseInt(lines.get(0).substring("path ".length()));
+        } catch (RuntimeException e) {
+            // IndexOutOfBoundsException and NumberFormatException
+            throw new IOException(bad + ": bad first line");
+        }
+        if (moves < 0 || lines.size() != moves + 2)
+            throw new IOException(bad + ": expected " + (moves + 1) + " cells, found " + (lines.size() - 1));
+
+        int pr = -1, pc = -1;
+        for (int i = 0; i <= moves; i++) {
+            String[] f = lines.get(i + 1).split(" ");
+            int r = Integer.parseInt(f[0]);
+            int c = Integer.parseInt(f[1]);
+
+            boolean ok;
+            if (i == 0)
+                ok = r == 0 && c == 0;
+            else if (r == pr && c == pc + 1)
+                ok = !m.getRight(pr, pc);
+            else if (r == pr && c == pc - 1)
+                ok = !m.getRight(r, c);
+            else if (r == pr + 1 && c == pc)
+                ok = !m.getBot(pr, pc);
+            else if (r == pr - 1 && c == pc)
+                ok = !m.getBot(r, c);
+            else
+                ok = false;
+
+            if (!ok)
+                throw new IOException(bad + ": cannot go to [" + r + "," + c + "] at step " + i);
+            pr = r;
+            pc = c;
+        }
+
+        if (pr != m.height() - 1 || pc != m.width() - 1)
+            throw new IOException(bad + ": it ends at [" + pr + "," + pc + "]");
+
+    } // end of checkPath(Maze, Path)
+
+
+    /**
+     * Starts the MazeBatch program.
+     * <p>
+     * <b><i>Usage:</i></b><ul>
+     * <li><tt>java MazeBatch -g <i>count</i> <i>rows</i> <i>cols</i> [<i>options</i>]</tt>
+     * <blockquote>
+     * Generates <i>count</i> random mazes with dimensions <i>rows</i> x <i>cols</i>.
+     * </blockquote></li>
+     * <li><tt>java MazeBatch -d <i>directory</i> [<i>options</i>]</tt>
+     * <blockquote>
+     * Loads every file in <i>directory</i> (such as <tt>sample_mazes</tt>), in order of name.
+     * </blockquote></li>
+     * </ul>
+     * Options:<ul>
+     * <li><tt>-a <i>algorithm</i></tt>: generator for <tt>-g</tt>, as for <tt>MazePlay</tt> (default <tt>kruskal</tt>).</li>
+     * <li><tt>-s <i>seed</i></tt>: seed for <tt>-g</tt> (default random).</li>
+     * <li><tt>-solver <i>name</i></tt>: <tt>dfs</tt> (default), <tt>bfs</tt>, <tt>astar</tt> or <tt>bidirectional</tt>.</li>
+     * <li><tt>-j <i>threads</i></tt>: number of worker threads (default one per processor,
+     * or one with <tt>-a parallel</tt>, which already uses every processor for each maze).</li>
+     * <li><tt>-o <i>directory</i></tt>: where to write each solution path (<i>name</i><tt>.path</tt>)
+     * and, with <tt>-g</tt>, each maze.</li>
+     * <li><tt>-verify</tt>: read each solution path back after writing it with <tt>-o</tt>
+     * and check that it leads from the top-left to the bottom-right cell through open walls.</li>
+     * <li><tt>-format <i>format</i></tt>: <tt>text</tt> (default), <tt>gzip</tt> or <tt>binary</tt>, for mazes written with <tt>-o</tt>.</li>
+     * <li><tt>-csv <i>file</i></tt>: where to write the timings (default standard output).</li>
+     * </ul>
+     * The exit status is 1 if the arguments are wrong or any maze failed.
+     *
+     * @param   args    Command-line arguments following usage instructions described above.
+     */
+    public static void main(String[] args) {
+
+        if (args.length < 2 || !(args[0].equals("-g") || args[0].equals("-d"))) {
+            System.err.println("MazeBatch: error, incorrect arguments given");
+            System.exit(1);
+        }
+
+        boolean generate = args[0].equals("-g");
+        int count = 0, rows = 0, cols = 0;
+        Path dir = null;
+        int i;
+
+        if (generate) {
+            try {
+                count = Integer.parseInt(args[1]);
+                rows = Integer.parseInt(args[2]);
+                cols = Integer.parseInt(args[3]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                System.err.println("MazeBatch: error, generation requires three integer arguments");
+                System.exit(1);
+            }
+            i = 4;
+        }
+        else {
+            dir = Paths.get(args[1]);
+            i = 2;
+        }
+
+        MazeGenerator gen = MazeGenerator.KRUSKAL;
+        long seed = new SplittableRandom().nextLong();
+        String solver = "dfs";
+        int threads = 0;    // not given
+        Path out = null;
+        String format = "text";
+        String csv = null;
+        boolean verify = false;
+
+        try {
+            for (; i < args.length; i++) {
+                String opt = args[i];
+                if (opt.equals("-verify")) {
+                    verify = true;
+                    continue;
+                }
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("missing value for " + opt);
+                String value = args[++i];
+
+                if (opt.equals("-a"))
+                    gen = MazeGenerator.forName(value);
+                else if (opt.equals("-s"))
+                    seed = Long.parseLong(value);
+                else if (opt.equals("-solver"))
+                    solver = value;
+                else if (opt.equals("-j")) {
+                    threads = Integer.parseInt(value);
+                    if (threads < 1)
+                        throw new IllegalArgumentException("need at least one thread");
+                }
+                else if (opt.equals("-o"))
+                    out = Paths.get(value);
+                else if (opt.equals("-format"))
+                    format = value;
+                else if (opt.equals("-csv"))
+                    csv = value;
+                else
+                    throw new IllegalArgumentException("unknown option " + opt);
+            }
+
+            if (!Arrays.asList("dfs", "bfs", "astar", "bidirectional").contains(solver))
+                throw new IllegalArgumentException("unknown solver " + solver);
+            if (!Arrays.asList("text", "gzip", "binary").contains(format))
+                throw new IllegalArgumentException("unknown format " + format);
+
+            // a parallel generator runs a pool as wide as the machine for every maze,
+            // so more jobs at once would only oversubscribe the processors
+            if (threads == 0)
+                threads = generate && gen.name().equals("parallel") ? 1 : Runtime.getRuntime().availableProcessors();
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException included
+            System.err.println("MazeBatch: error, " + e.getMessage());
+            System.exit(1);
+        }
+
+        // list the jobs in order, drawing the seeds of generated mazes in order
+        List<Job> jobs = new ArrayList<Job>();
+        try {
+            if (out != null)
+                Files.createDirectories(out);
+
+            if (generate) {
+                SplittableRandom seeds = new SplittableRandom(seed);
+                for (int k = 0; k < count; k++)
+                    jobs.add(new Job(String.format("maze-%05d", k), null, rows, cols, gen, seeds.nextLong(),
+                                     solver, out, format, verify));
+            }
+            else {
+                List<Path> files = new ArrayList<Path>();
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                    for (Path f : ds)
+                        if (Files.isRegularFile(f) && !f.getFileName().toString().startsWith("."))
+                            files.add(f);
+                }
+                Collections.sort(files);
+                for (Path f : files)
+                    jobs.add(new Job(f.getFileName().toString(), f, 0, 0, null, 0, solver, out, format, verify));
+            }
+        } catch (IOException e) {
+            System.err.println("MazeBatch: error, " + e.getMessage());
+            System.exit(1);
+        }
+
+        if (!run(jobs, threads, csv))
+            System.exit(1);
+
+    } // end of main(String[])
+
+
+    /*
+     * Runs the jobs on a pool of threads and writes their CSV lines in order.
+     * Returns false if any job failed.
+     */
+    private static boolean run(List<Job> jobs, int threads, String csv) {
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        boolean ok = true;
+
+        try (PrintStream w = csv == null ? null : new PrintStream(new FileOutputStream(csv), false, "US-ASCII")) {
+
+            PrintStream table = w == null ? System.out : w;
+            List<Future<String>> results = new ArrayList<Future<String>>(jobs.size());
+            for (Job j : jobs)
+                results.add(pool.submit(j));
+
+            table.println(HEADER);
+            for (int k = 0; k < jobs.size(); k++) {
+                try {
+                    table.println(results.get(k).get());
+                } catch (ExecutionException e) {
+                    System.err.println("MazeBatch: error processing " + jobs.get(k).name);
+                    System.err.println(e.getCause());
+                    ok = false;
+                }
+            }
+            table.flush();
+
+        } catch (IOException e) {
+            System.err.println("MazeBatch: error writing " + csv);
+            System.err.println(e.getMessage());
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ok = false;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return ok;
+
+    } // end of run(List<Job>, int, String)
+
+} // end of MazeBatch
@@ -0,0 +1,218 @@
+/*
+ * class MazeFile
+ *
+ * Header of the binary maze file format
+ * COSC 102, Colgate University
+ */
+
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+
+/**
+ * Reads and writes the header of a binary maze file.
+ * <p>
+ * A binary maze file is laid out as follows, with all integers little-endian:
+ * <pre>
+ *      offset  size    contents
+ *      0       4       magic bytes "mazb"
+ *      4       4       format version (1)
+ *      8       4       width (number of columns)
+ *      12      4       height (number of rows)
+ *      16      4       length n of the title in bytes
+ *      20      n       title, UTF-8
+ *      ...             zero padding up to a multiple of 8 bytes
+ *      payload         wall codes, 2 bits per cell, 4 cells per byte,
+ *                      padded to a multiple of 8 bytes (padding is ignored)
+ * </pre>
+ * Cell <code>i</code> (row by row) takes the two bits starting at bit
+ * <code>2*(i%4)</code> of payload byte <code>i/4</code>, using the codes of
+ * <code>WallStore</code>.  Because the payload is aligned and padded to whole
+ * little-endian <code>long</code>s, it can be mapped or copied directly into a
+ * <code>PackedWallStore</code> word array.
+ */
+final class MazeFile {
+
+    /** Magic bytes at the start of every binary maze file. */
+    static final byte[] MAGIC = { 'm', 'a', 'z', 'b' };
+
+    /** Current format version. */
+    static final int VERSION = 1;
+
+    /** Name of the program, used in error messages. */
+    private static final String prog = "MazePlay";
+
+    /** Size of the fixed part of the header, before the title. */
+    private static final int FIXED = 20;
+
+    /** Longest title, in UTF-8 bytes, that is written or accepted when reading. */
+    private static final int MAX_TITLE = 1 << 16;
+
+    /** Width of the maze (number of columns). */
+    final int width;
+
+    /** Height of the maze (number of rows). */
+    final int height;
+
+    /** Title of the maze. */
+    final String title;
+
+    /** Offset of the wall payload from the start of the file. */
+    final long payload;
+
+
+    /**
+     * Describes the header of a maze with the given dimensions and title.
+     *
+     * @param   width   number of columns
+     * @param   height  number of rows
+     * @param   title   title to store, may be empty
+     * @throws IllegalArgumentException if the title is longer than <code>MAX_TITLE</code> bytes,
+     *                                  so the file could not be read back
+     */
+    MazeFile(int width, int height, String title) {
+
+        int n = title.getBytes(StandardCharsets.UTF_8).length;
+        if (n > MAX_TITLE)
+            throw new IllegalArgumentException(String.format("maze title is %d bytes long, more than %d", n, MAX_TITLE));
+
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.payload = align(FIXED + n);
+
+    } // end of MazeFile(int, int, String)
+
+
+    /**
+     * Returns the number of payload bytes needed for a number of cells.
+     *
+     * @param   cells   number of cells
+     * @return  the payload size, rounded up to whole <code>long</code>s
+     */
+    static long payloadBytes(long cells) {
+        return ((cells + 31) / 32) * 8;
+    } // end of payloadBytes(long)
+
+
+    /**
+     * Returns the total size of a file with this header.
+     *
+     * @return  header plus payload size in bytes
+     */
+    long fileSize() {
+        return payload + payloadBytes((long) width * height);
+    } // end of fileSize()
+
+
+    /**
+     * Indicates whether a file starts with the magic bytes of the binary format.
+     * Text maze files start with <code>maze</code> instead.
+     *
+     * @param   ch  the channel to examine; its position is not changed
+     * @return  <code>true</code> if the file looks like a binary maze file
+     * @throws IOException  if an error occurs while reading
+     */
+    static boolean isBinary(FileChannel ch) throws IOException {
+
+        ByteBuffer buf = ByteBuffer.allocate(MAGIC.length);
+        while (buf.hasRemaining())
+            if (ch.read(buf, buf.position()) < 0)
+                return false;
+
+        return Arrays.equals(buf.array(), MAGIC);
+
+    } // end of isBinary(FileChannel)
+
+
+    /**
+     * Reads and checks the header at the start of a channel.
+     *
+     * @param   ch          the channel to read from
+     * @param   filename    the name of the file, used in error messages
+     * @return  the header
+     * @throws IOException  if the header is not that of a valid binary maze file
+     */
+    static MazeFile read(FileChannel ch, String filename) throws IOException {
+
+        ByteBuffer buf = ByteBuffer.allocate(FIXED).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(ch, buf, 0, filename);
+
+        for (int i = 0; i < MAGIC.length; i++)
+            if (buf.get(i) != MAGIC[i])
+                throw new IOException(prog + ": " + filename + " is not a maze");
+
+        int version = buf.getInt(4);
+        if (version != VERSION)
+            throw new IOException(prog + ": " + filename + " has unsupported format version " + version);
+
+        int w = buf.getInt(8);
+        int h = buf.getInt(12);
+        if (w < 1 || h < 1)
+            throw new IOException(prog + ": " + filename + " contains a maze with illegal dimension(s)");
+
+        int n = buf.getInt(16);
+        if (n < 0 || n > MAX_TITLE)
+            throw new IOException(prog + ": " + filename + " has a corrupt header");
+
+        ByteBuffer t = ByteBuffer.allocate(n);
+        readFully(ch, t, FIXED, filename);
+
+        MazeFile header = new MazeFile(w, h, new String(t.array(), StandardCharsets.UTF_8));
+
+        if (ch.size() < header.fileSize())
+            throw new IOException(prog + ": " + filename + " is truncated");
+
+        return header;
+
+    } // end of read(FileChannel, String)
+
+
+    /**
+     * Writes this header, including padding, at the start of a channel.
+     *
+     * @param   ch  the channel to write to
+     * @throws IOException  if an error occurs while writing
+     */
+    void write(FileChannel ch) throws IOException {
+
+        byte[] t = title.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buf = ByteBuffer.allocate((int) payload).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(t.length).put(t);
+        buf.clear();
+
+        long pos = 0;
+        while (buf.hasRemaining())
+            pos += ch.write(buf, pos);
+
+    } // end of write(FileChannel)
+
+
+    /*
+     * Rounds up to a multiple of 8.
+     */
+    private static long align(long n) {
+        return (n + 7) & ~7L;
+    } // end of align(long)
+
+
+    /*
+     * Fills buf from the channel starting at pos, failing at end of file.
+     */
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos, String filename) throws IOException {
+
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos);
+            if (n < 0)
+                throw new IOException(prog + ": " + filename + " is not a maze");
+            pos += n;
+        }
+
+    } // end of readFully(FileChannel, ByteBuffer, long, String)
+
+} // end of MazeFile
@@ -0,0 +1,102 @@
+/*
+ * interface MazeGenerator
+ *
+ * Algorithm used to generate a random Maze
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+
+
+/**
+ * An algorithm that carves a random perfect maze (a maze with exactly one path
+ * between any two cells) into a wall store.
+ * <p>
+ * The algorithms differ in speed, memory and the texture of the mazes they make:
+ * <ul>
+ * <li><code>KRUSKAL</code>: many short dead ends; about 12 bytes of heap per cell.
+ * <li><code>BACKTRACKER</code>: long winding corridors with few dead ends; under half a byte per cell.
+ * <li><code>PRIM</code>: short dead ends radiating from the start; about 5 bytes per cell.
+ * <li><code>WILSON</code>: a uniformly random spanning tree, with no bias at all;
+ *     under half a byte per cell, but slower than the others.
+ * <li><code>BINARY_TREE</code>: open bottom row and right column, with a strong
+ *     diagonal bias; no extra memory.
+ * <li><code>SIDEWINDER</code>: an open bottom row and long horizontal runs; no extra memory.
+ * <li><code>parallelKruskal()</code>: Kruskal in bands of rows on several threads
+ *     (see <code>Maze.generateParallel()</code>).
+ * </ul>
+ * The same generator, seed and size always give the same maze.
+ */
+public interface MazeGenerator {
+
+    /** Kruskal's algorithm over a shuffled list of the interior walls. */
+    MazeGenerator KRUSKAL = new KruskalGenerator();
+
+    /** Recursive backtracker (randomized depth-first search), run without recursion. */
+    MazeGenerator BACKTRACKER = new BacktrackerGenerator();
+
+    /** Randomized Prim's algorithm. */
+    MazeGenerator PRIM = new PrimGenerator();
+
+    /** Wilson's algorithm (loop-erased random walks). */
+    MazeGenerator WILSON = new WilsonGenerator();
+
+    /** Binary tree: each cell opens its bottom or its right wall. */
+    MazeGenerator BINARY_TREE = new BinaryTreeGenerator();
+
+    /** Sidewinder: runs of cells along a row, each opened downwards once. */
+    MazeGenerator SIDEWINDER = new SidewinderGenerator();
+
+    /**
+     * Returns a generator that runs Kruskal's algorithm in bands of rows on several threads.
+     * For a given seed it makes the same maze whatever the number of threads, but not the
+     * same maze as <code>KRUSKAL</code>.
+     *
+     * @param   threads     number of worker threads, at least 1
+     * @return  the generator
+     */
+    static MazeGenerator parallelKruskal(int threads) {
+        return new ParallelKruskalGenerator(threads);
+    }
+
+    /**
+     * Fills a store with a random perfect maze.
+     *
+     * @param   walls       the store to fill; its previous contents are discarded
+     * @param   rows        number of rows, at least 1
+     * @param   cols        number of columns, at least 1; <code>rows * cols</code> is at most 2<sup>30</sup>
+     * @param   rd          source of randomness
+     */
+    void generate(WallStore walls, int rows, int cols, SplittableRandom rd);
+
+    /**
+     * Returns the short name of the generator, as accepted by <code>forName()</code>.
+     *
+     * @return  the generator's name
+     */
+    String name();
+
+    /**
+     * Looks up a generator by its short name: <tt>kruskal</tt>, <tt>parallel</tt>
+     * (on one thread per processor), <tt>backtracker</tt>, <tt>prim</tt>,
+     * <tt>wilson</tt>, <tt>binarytree</tt> or <tt>sidewinder</tt>.
+     *
+     * @param   name    the name of the generator
+     * @return  the generator with that name
+     * @throws IllegalArgumentException  if there is no generator with that name
+     */
+    static MazeGenerator forName(String name) {
+
+        if (name.equals("parallel"))
+            return parallelKruskal(Runtime.getRuntime().availableProcessors());
+
+        for (MazeGenerator g : new MazeGenerator[] { KRUSKAL, BACKTRACKER, PRIM, WILSON, BINARY_TREE, SIDEWINDER })
+            if (g.name().equals(name))
+                return g;
+
+        throw new IllegalArgumentException("unknown maze generator " + name);
+
+    } // end of forName(String)
+
+} // end of MazeGenerator
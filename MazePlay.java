@@ -13,8 +13,14 @@
 
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.*;
 import javax.swing.*;
 import java.io.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Program to display and solve mazes.  Takes input from files in the maze file format or generates (and optionally saves) random mazes.
@@ -27,6 +33,13 @@ import java.io.*;
  * solver will be shown in the maze.
  * The solver can be suspended and resumed by clicking in the window.
  * <p>
+ * Large mazes can be explored: drag the maze or use the arrow keys to scroll it, and
+ * turn the mouse wheel or press <tt>z</tt> and <tt>x</tt> to zoom in and out (<tt>f</tt>
+ * fits the whole maze in the window).  Only the visible cells are drawn.  Zoomed out
+ * past two pixels per cell, each pixel stands for a square block of cells, shown in
+ * the color of the most advanced state in it, so the solver's path stays visible in
+ * mazes of hundreds of millions of cells.
+ * <p>
  * <b>You will have to implement the logic for the solver</b>, but the logic for controlling the solver
  * thread (via mouse clicking) has already been implemented.
  * The solver code and the data structure for storing the maze is contained in the class <code>Maze</code>, so the source code for <code>MazePlay</code>
@@ -38,6 +51,8 @@ import java.io.*;
  */
 public class MazePlay extends JComponent implements Runnable, WindowListener, MouseListener
 {
+    private static final long serialVersionUID = 1L;
+
     private Maze maze;
 	
     // Constants for cell-color states
@@ -54,26 +69,75 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
      */
     public static final int B = 2;
     
-    private static final Color colE = Color.white;
-    private static final Color colF = Color.green;
-    private static final Color colB = Color.red;
     
     
     // Data members for drawing state
     private int w = 0, h = 0;     // width and height
-    private boolean[] right;      // right walls
-    private boolean[] bot;        // bottom walls
-    private Color[] color;        // cell-drawing color (and state)
-    private int fw = 0, bk = 0;   // count of forward / backward steps
+    private byte[] state;         // solver state of each cell: E, F or B (walls are read from maze)
+    private volatile int fw = 0, bk = 0;    // count of forward / backward steps (written only by the solver)
     
     // Drawing constants
-    private final int Dth = 4;  // thickness of lines
-    private final int Dsz = 14;  // size of cell
-    private final int Dmg = 10; // margin
+    private final int Dmg = 10; // margin (cell sizes and line thicknesses are in SIZES and WALLS)
 
     // Thread control  [achieved through setState()] and cleanup
     private volatile boolean suspended = true;
     private volatile boolean alive = true;
+    private volatile Thread solver;     // thread running the solver, null when there is none
+    private boolean started = false;    // solver submitted (touched only on the event thread)
+    private volatile long stepNanos = 100000000L;        // pause after each step
+    private volatile boolean turbo = false;     // no pauses between steps
+    private volatile boolean dirty = false;     // state changed since frameTimer last painted
+    private Timer frameTimer;                   // repaints at about the display refresh rate
+
+    // Cells changed since paint() last brought the view up to date: one bit per cell,
+    // and one bit per word of those in dirtyWords, so paint() finds the changes
+    // without scanning the whole bitmap.  The solver sets bits and paint() clears
+    // whole words, both without locks.
+    private AtomicLongArray dirtyCells;
+    private AtomicLongArray dirtyWords;
+    
+    // Cells whose walls have changed, kept the same way, and whether all of them have
+    private AtomicLongArray wallCells;
+    private AtomicLongArray wallWords;
+    private volatile boolean wallsReplaced = false;
+
+    // View state, touched only on the event thread.  The view shows the maze from
+    // (vx, vy), in pixels of the maze drawn at the current zoom, below the banner.
+    // A zoom of 0 or more draws every wall with cells of SIZES[zoom] pixels; a zoom
+    // of -k draws 2^k x 2^k cells per pixel from the level-of-detail pyramid lod[k].
+    private int zoom = 3;
+    private int vx = -Dmg, vy = -Dmg;
+    private BufferedImage view;         // the visible part of the maze, as drawn
+    private int[] viewPx;               // pixels of view
+    private boolean viewStale = true;   // view must be redrawn from scratch
+    private byte[][] lod;               // lod[k][i]: highest state rank in block i of level k
+    private int dragX, dragY;           // last mouse position while panning
+    private int clipX0 = 0, clipY0 = 0;                                 // fillView draws only inside
+    private int clipX1 = Integer.MAX_VALUE, clipY1 = Integer.MAX_VALUE; // these bounds too
+    
+    private static final int[] SIZES = { 2, 4, 7, 14, 28, 56 };    // cell sizes, in pixels
+    private static final int[] WALLS = { 1, 1, 2, 4, 8, 16 };      // wall thickness at each size
+    private static final int TOP = 40;                              // height of the banner area
+    private static final int RGB_E = 0xffffff, RGB_F = 0x00ff00, RGB_B = 0xff0000;
+    private static final int RGB_WALL = 0x000000, RGB_LOD_E = 0xd0d0d0;
+    private static final int BOT_WALL = WallStore.BOT, RIGHT_WALL = WallStore.RIGHT;
+
+    // Step delays selectable with the + and - keys, in milliseconds
+    private static final long[] DELAYS = { 0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000 };
+
+    // Runs the solvers of all windows, each on a daemon thread of its own
+    private static final ExecutorService SOLVERS = solverExecutor();
+    
+    // Thrown by setState() to end the solver of a closed window; private, so no solver can catch it by name
+    private static final class SolverKilled extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        SolverKilled()
+        {
+            super(null, null, false, false);    // no stack trace: it is only a signal
+        }
+    }
 	
 	// Utility methods to convert from [0, w*h] to (x,y) and back
     private int onedim(int row, int col) throws IndexOutOfBoundsException
@@ -102,23 +166,24 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
     }
     
 	
-    // Adjust outer borders
-    private void fixCellBorders()
+    // Walls as drawn: the maze's, with the outer borders closed except for the
+    // exit at the right of the last cell
+    private int walls(int row, int col)
 	{
-		for (int i = 1; i < h; i++)
-			right[(i * w) - 1] = true;
+        int bits = maze.walls(row, col);
         
-        if (w * h > 0)
-            right[(w * h) - 1] = false;
+        if (col == w - 1)
+            bits = row == h - 1 ? bits & ~RIGHT_WALL : bits | RIGHT_WALL;
+        if (row == h - 1)
+            bits |= BOT_WALL;
         
-		for (int i = w * (h-1); i < w * h; i++)
-			bot[i] = true;
+        return bits;
 	}
 	
 	// Drawing state functions
     private boolean getRight(int c) throws IndexOutOfBoundsException
     {
-        return right[c];
+        return (walls(twodimrow(c), twodimcol(c)) & RIGHT_WALL) != 0;
     }
     
     private boolean getRight(int row, int col) throws IndexOutOfBoundsException
@@ -128,7 +193,7 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
 	
     private boolean getBot(int c) throws IndexOutOfBoundsException
     {
-        return bot[c];
+        return (walls(twodimrow(c), twodimcol(c)) & BOT_WALL) != 0;
     }
     
     private boolean getBot(int row, int col) throws IndexOutOfBoundsException
@@ -138,12 +203,7 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
     
     private int getState(int c) throws IndexOutOfBoundsException
     {
-        if (color[c] == colF)
-            return F;
-        else if (color[c] == colB)
-            return B;
-        else
-            return E;
+        return state[c];
     }
     
     /**
@@ -187,8 +247,8 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
 	
     private void setRight(int c, boolean b) throws IndexOutOfBoundsException
     {
-        right[c] = b;
-        fixCellBorders();
+        maze.setRight(twodimrow(c), twodimcol(c), b);
+        markWalls(c);
     }
     
     private void setRight(int row, int col, boolean b) throws IndexOutOfBoundsException
@@ -198,8 +258,8 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
     
     private void setBot(int c, boolean b) throws IndexOutOfBoundsException
     {
-        bot[c] = b;
-        fixCellBorders();
+        maze.setBot(twodimrow(c), twodimcol(c), b);
+        markWalls(c);
     }
     
     private void setBot(int row, int col, boolean b) throws IndexOutOfBoundsException
@@ -207,7 +267,44 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
         setBot(onedim(row, col), b);
     }
     
-    private boolean setState(int c, int v) throws IndexOutOfBoundsException, ThreadDeath
+    /**
+     * Changes the walls of a cell of the maze being shown, for animating a maze as it is
+     * built or edited.  Safe to call from any thread: both walls are changed in one atomic
+     * step, so edits from several threads never undo each other and a running solver sees
+     * the cell either before or after the change.  The cell is redrawn with the next frame,
+     * at a cost that does not depend on the size of the maze.
+     * As always, the outer walls are drawn closed except for the exit, whatever the maze holds.
+     * 
+     * @param   row   row number (vertical coordinate) of the cell whose walls are being changed
+     * @param   col   column number (horizontal coordinate) of the cell whose walls are being changed
+     * @param   right   <code>true</code> if the right wall should exist
+     * @param   bot     <code>true</code> if the bottom wall should exist
+     * @throws  IndexOutOfBoundsException   if <code>col &lt; 0</code>, <code>row &lt; 0</code>,
+     *                      <code>col &gt; = width</code>, or <code>row &gt;= height</code>
+     */
+    public void setWalls(int row, int col, boolean right, boolean bot) throws IndexOutOfBoundsException
+    {
+        int c = onedim(row, col);
+        maze.setWalls(row, col, (right ? RIGHT_WALL : 0) | (bot ? BOT_WALL : 0));
+        markWalls(c);
+    }
+    
+    /**
+     * Replaces all the walls of the maze being shown with those of another maze of the
+     * same size, copied in bulk (see <code>Maze.copyWalls()</code>).  Safe to call from
+     * any thread; the view is redrawn once, with the next frame.
+     * 
+     * @param   from    the maze whose walls to show
+     * @throws  IllegalArgumentException   if the mazes differ in width or height
+     */
+    public void setWalls(Maze from) throws IllegalArgumentException
+    {
+        maze.copyWalls(from);
+        wallsReplaced = true;
+        dirty = true;
+    }
+    
+    private boolean setState(int c, int v) throws IndexOutOfBoundsException
     {
         controlThread();
 		
@@ -215,24 +312,24 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
         
         switch (v) {
             case F:
-				if (color[c] != colF) {
-					color[c] = colF;
+				if (state[c] != F) {
+					state[c] = F;
 					fw++;
 					changed = true;
 				}
                 break;
                 
             case B:
-				if (color[c] != colB) {
-					color[c] = colB;
+				if (state[c] != B) {
+					state[c] = B;
 					bk++;
 					changed = true;
 				}
                 break;
                 
             case E:
-				if (color[c] != colE) {
-					color[c] = colE;
+				if (state[c] != E) {
+					state[c] = E;
 					changed = true;
 				}
                 break;
@@ -240,8 +337,10 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
             default:
                 break;
         }
-        fillCell(twodimrow(c), twodimcol(c));
-        drawBanner();
+        // nothing is painted here: frameTimer repaints, and paint() picks up the changed cells
+        if (changed)
+            markDirty(c);
+        dirty = true;
 		
 		return changed;
     }
@@ -257,9 +356,11 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
      *          <code>false</code> if the cell state is not changed (either <code>v</code> is an unrecognized state or the state of the cell is already <code>v</code>)
      * @throws  IndexOutOfBoundsException   if <code>col &lt; 0</code>, <code>row &lt; 0</code>,
      *                      <code>col &gt; = width</code>, or <code>row &gt;= height</code>
-     * @throws  ThreadDeath     if the solver thread has been killed
+     * If the window has been closed, this method does not return: it throws an unchecked
+     * exception, private to <code>MazePlay</code>, that ends the solver.  Solvers should let
+     * it pass rather than catch <code>RuntimeException</code>.
      */
-    public boolean setState(int row, int col, int v) throws IndexOutOfBoundsException, ThreadDeath
+    public boolean setState(int row, int col, int v) throws IndexOutOfBoundsException
     {
         return setState(onedim(row, col), v);
     }
@@ -269,11 +370,48 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
 	// Thread control
     
     /*
-     * Toggles the state of the solver thread.
+     * Returns the executor for solver threads.  Every solver gets a daemon thread of its
+     * own as soon as it starts, since a suspended or pausing solver holds on to its
+     * thread; threads left by finished solvers are reused, and end after a minute idle.
+     */
+    private static ExecutorService solverExecutor()
+    {
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "MazePlay solver");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+    
+    /*
+     * Toggles the state of the solver thread, starting the solver on the first call.
      */
     private void TOGGLE()
     {
         suspended = !suspended;
+        
+        if (!started) {
+            started = true;
+            SOLVERS.execute(new Runnable() {
+                public void run() {
+                    solver = Thread.currentThread();
+                    try {
+                        if (alive)
+                            maze.solve(MazePlay.this);
+                    } catch (SolverKilled e) {
+                        // window closed
+                    } finally {
+                        solver = null;
+                        dirty = true;
+                    }
+                }
+            });
+        }
+        
+        LockSupport.unpark(solver);
+        drawBanner();
     }
     
     /*
@@ -282,23 +420,55 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
     private void KILL()
     {
         alive = false;
+        LockSupport.unpark(solver);
+    }
+    
+    /*
+     * Moves the step delay by a number of places in DELAYS (negative is faster).
+     */
+    private void changeSpeed(int by)
+    {
+        long ms = stepNanos / 1000000L;
+        int i = 0;
+        while (i < DELAYS.length - 1 && DELAYS[i] < ms)
+            i++;
+        i = Math.max(0, Math.min(DELAYS.length - 1, i + by));
+        stepNanos = DELAYS[i] * 1000000L;
+        LockSupport.unpark(solver);     // cut short a long pause
+        drawBanner();
     }
     
-    private void controlThread() throws ThreadDeath
+    /*
+     * Switches turbo mode on or off.
+     */
+    private void toggleTurbo()
+    {
+        turbo = !turbo;
+        LockSupport.unpark(solver);
+        repaint();
+    }
+    
+    /*
+     * Called by the solver before each step: parks while the solver is suspended,
+     * then waits out the step delay (unless in turbo mode).  TOGGLE() and KILL() unpark the solver, so
+     * it wakes only when there is something to do.
+     */
+    private void controlThread()
     {
-        while (suspended && alive) {
+        if (suspended && alive) {
             drawBanner();
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) { }
+            while (suspended && alive)
+                LockSupport.park(this);
         }
 		
-        if (alive) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) { }
-        } else
-            throw new ThreadDeath();
+        if (!turbo) {
+            long deadline = System.nanoTime() + stepNanos;
+            for (long left; alive && (left = deadline - System.nanoTime()) > 0; )
+                LockSupport.parkNanos(this, left);
+        }
+        
+        if (!alive)
+            throw new SolverKilled();
     }
 	
 
@@ -312,21 +482,15 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
 		this.w = maze.width();
 		this.h = maze.height();
 		
-		// Initialize drawing state
+		// Initialize drawing state: every cell empty (E is 0)
 		
-        right = new boolean[w * h];
-        bot = new boolean[w * h];
-        color = new Color[w * h];
+        state = new byte[w * h];
+        dirtyCells = new AtomicLongArray((w * h + 63) >>> 6);
+        dirtyWords = new AtomicLongArray((dirtyCells.length() + 63) >>> 6);
+        wallCells = new AtomicLongArray(dirtyCells.length());
+        wallWords = new AtomicLongArray(dirtyWords.length());
 		
-		// Code to fill drawing state based on maze
-        for (int i = 0; i < w * h; i++) {
-            right[i] = maze.getRight(twodimrow(i), twodimcol(i));
-            bot[i] = maze.getBot(twodimrow(i), twodimcol(i));
-            color[i] = colE;
-        }
-        
 		// Make component ready to display
-		fixCellBorders();
         fw = 0;
         bk = 0;
 
@@ -344,35 +508,80 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
             return;
 
         JFrame f = new JFrame("MazePlay: " + maze.title());
-        f.setSize(Math.max(20 + 20 * maze.width(), 300), Math.max(60 + 20 * maze.height(), 300));
+        Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        f.setSize((int) Math.min(Math.max(20 + 20L * maze.width(), 300), screen.width),
+                  (int) Math.min(Math.max(60 + 20L * maze.height(), 300), screen.height));
+        zoom = Math.min(3, fitZoom(screen.width - 20, screen.height - TOP - 40));
         f.setBackground(Color.white);
         f.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
         
         f.setContentPane(this);
         f.addWindowListener(this);
         f.addMouseListener(this);
+        addMouseListener(this);
+        f.addKeyListener(new KeyAdapter() {
+            public void keyTyped(KeyEvent e) {
+                int vw = getWidth(), vh = getHeight() - TOP;
+                switch (e.getKeyChar()) {
+                    case '+': case '=':     changeSpeed(-1);                        break;
+                    case '-': case '_':     changeSpeed(1);                         break;
+                    case 't': case 'T':     toggleTurbo();                          break;
+                    case 'z': case 'Z':     setZoom(zoom + 1, vw / 2, vh / 2);      break;
+                    case 'x': case 'X':     setZoom(zoom - 1, vw / 2, vh / 2);      break;
+                    case 'f': case 'F':     setZoom(fitZoom(vw, vh), 0, 0);        break;
+                    default:                break;
+                }
+            }
+            
+            public void keyPressed(KeyEvent e) {
+                int step = Math.max(getWidth(), getHeight()) / 4;
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_LEFT:  pan(-step, 0);  break;
+                    case KeyEvent.VK_RIGHT: pan(step, 0);   break;
+                    case KeyEvent.VK_UP:    pan(0, -step);  break;
+                    case KeyEvent.VK_DOWN:  pan(0, step);   break;
+                    default:                break;
+                }
+            }
+        });
+        
+        // drag to pan, wheel to zoom about the pointer
+        MouseAdapter navigator = new MouseAdapter() {
+            public void mousePressed(MouseEvent e) {
+                dragX = e.getX();
+                dragY = e.getY();
+            }
+            
+            public void mouseDragged(MouseEvent e) {
+                pan(dragX - e.getX(), dragY - e.getY());
+                dragX = e.getX();
+                dragY = e.getY();
+            }
+            
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                setZoom(zoom - e.getWheelRotation(), e.getX(), e.getY() - TOP);
+            }
+        };
+        addMouseMotionListener(navigator);
+        addMouseWheelListener(navigator);
+        addMouseListener(navigator);
+        
+        frameTimer = new Timer(16, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                if (dirty) {
+                    dirty = false;
+                    repaint();
+                }
+            }
+        });
+        frameTimer.start();
         
         f.setVisible(true);
         f.toFront();
 		
-		// Invoke the solver thread
+		// The solver thread is started by the first click (see TOGGLE())
         suspended = true;
 		alive = true;
-
-        new Thread(){
-            private MazePlay player = null;
-            private Maze maze = null;
-            
-            Thread init(MazePlay player, Maze maze) {
-                this.player = player;
-                this.maze = maze;
-                return this;
-            }
-            
-            public void run() {
-                maze.solve(player);
-            }
-        }.init(this, maze).start();
     }
 
     /**
@@ -382,6 +591,8 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
     public void windowClosing(WindowEvent e)
     {
         KILL();
+        if (frameTimer != null)
+            frameTimer.stop();
         e.getWindow().dispose();
     }
     
@@ -458,12 +669,12 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
     
 	// Painting functions
     
+    /*
+     * Asks for the banner to be repainted; safe to call from any thread.
+     */
     private void drawBanner()
     {
-        Graphics g = getGraphics();
-        
-        if (g != null)
-            drawBanner(g);
+        repaint(0, 0, getWidth(), 30);
     }
 	
     private void drawBanner(Graphics g)
@@ -472,7 +683,8 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
         g.setColor(Color.white);
         g.fillRect(0, 0, getWidth(), 30);
         g.setColor(Color.black);
-        g.drawString("fw(" + fw + ") bk(" + bk + ") tot(" + (fw + bk) + ")", Dmg+120, 25);
+        g.drawString("fw(" + fw + ") bk(" + bk + ") tot(" + (fw + bk) + ") "
+                     + (turbo ? "turbo" : (stepNanos / 1000000L) + "ms"), Dmg+120, 25);
         
         if (suspended) {
             g.setColor(Color.red);
@@ -490,41 +702,356 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
         g.setColor(c);
     }
     
-    private void fillCell(int row, int col)
+    /*
+     * Records that a cell has changed; safe to call from any thread.  The word's bit
+     * in dirtyWords is set by whichever call finds the word empty, so a change is
+     * never lost to paint() clearing the word at the same time.
+     */
+    private void markDirty(int c)
+    {
+        if (setBit(dirtyCells, c) == 0)
+            setBit(dirtyWords, c >>> 6);
+    }
+    
+    /*
+     * Records that a cell's walls have changed, like markDirty(), and asks for a frame.
+     */
+    private void markWalls(int c)
     {
-        Graphics g = getGraphics();
+        if (setBit(wallCells, c) == 0)
+            setBit(wallWords, c >>> 6);
+        dirty = true;
+    }
+    
+    /*
+     * Sets bit i of a bitmap and returns the word it was in, as it was before.
+     * The word is always written with a compare-and-set, even when the bit is set
+     * already, so everything the caller wrote before (a cell's state or walls)
+     * happens-before paint() claims the word with getAndSet() and reads the cell.
+     */
+    private static long setBit(AtomicLongArray bits, int i)
+    {
+        int k = i >>> 6;
+        long bit = 1L << i;
+        long old = bits.get(k);
         
-        if (g != null)
-        {
-            g.translate(Dth + Dmg, Dth + Dmg + 40);
-            fillCell(g, row, col);
+        while (!bits.compareAndSet(k, old, old | bit))
+            old = bits.get(k);
+        
+        return old;
+    }
+    
+    /*
+     * Rank of a cell's state in the level-of-detail pyramid: a block shows the
+     * highest rank among its cells, so the forward path stays visible.
+     */
+    private int rank(int c)
+    {
+        return state[c] == F ? 2 : state[c] == B ? 1 : 0;
+    }
+    
+    private static int rgb(int rank, boolean lodView)
+    {
+        return rank == 2 ? RGB_F : rank == 1 ? RGB_B : lodView ? RGB_LOD_E : RGB_E;
+    }
+    
+    /*
+     * Returns the width or height of the maze, in pixels at the current zoom.
+     */
+    private long mazePixels(int cells)
+    {
+        if (zoom >= 0)
+            return (long) cells * SIZES[zoom] + WALLS[zoom];
+        else
+            return ((long) cells + (1L << -zoom) - 1) >> -zoom;
+    }
+    
+    /*
+     * Fills a rectangle of the view, clipped to it.
+     */
+    private void fillView(long x, long y, long width, long height, int rgb)
+    {
+        int vw = view.getWidth(), vh = view.getHeight();
+        int x0 = (int) Math.max(Math.max(0, clipX0), x), x1 = (int) Math.min(Math.min(vw, clipX1), x + width);
+        int y0 = (int) Math.max(Math.max(0, clipY0), y), y1 = (int) Math.min(Math.min(vh, clipY1), y + height);
+        if (x0 >= x1)
+            return;
+        
+        for (int yy = y0; yy < y1; yy++)
+            Arrays.fill(viewPx, yy * vw + x0, yy * vw + x1, rgb);
+    }
+    
+    /*
+     * Draws a cell's interior into the view; for drawWalls, also its right and bottom walls.
+     */
+    private void drawCell(int row, int col, boolean drawWalls)
+    {
+        int s = SIZES[zoom], t = WALLS[zoom];
+        long x = (long) col * s - vx, y = (long) row * s - vy;
+        int c = row * w + col;
+        
+        fillView(x + t, y + t, s - t, s - t, rgb(rank(c), false));
+        if (drawWalls) {
+            int bits = walls(row, col);
+            if ((bits & RIGHT_WALL) != 0)
+                fillView(x + s, y, t, s + t, RGB_WALL);
+            if ((bits & BOT_WALL) != 0)
+                fillView(x, y + s, s + t, t, RGB_WALL);
         }
     }
     
-    private void fillCell(Graphics g, int row, int col)
+    /*
+     * Redraws the whole view, visiting only the visible cells or blocks.
+     */
+    private void renderView()
     {
-        Color c = g.getColor();
-        switch (getState(row, col))
-		{
-			case F:
-				g.setColor(colF);
-				break;
-				
-			case B:
-				g.setColor(colB);
-				break;
-				
-			default:
-				g.setColor(colE);
-				break;
-		}
-        g.fillRect( col * Dsz, row * Dsz, Dsz - Dth, Dsz - Dth);
-        g.setColor(c);
+        int vw = view.getWidth(), vh = view.getHeight();
+        Arrays.fill(viewPx, RGB_E);
+        
+        if (zoom >= 0) {
+            int s = SIZES[zoom], t = WALLS[zoom];
+            
+            // top and left lines
+            fillView(-vx, -vy, (long) w * s + t, t, RGB_WALL);
+            fillView(-vx, s - vy, t, (long) (h - 1) * s + t, RGB_WALL);
+            
+            int c0 = (int) Math.max(0, Math.floorDiv(vx - t, (long) s));
+            int c1 = (int) Math.min(w - 1, Math.floorDiv((long) vx + vw, (long) s));
+            int r0 = (int) Math.max(0, Math.floorDiv(vy - t, (long) s));
+            int r1 = (int) Math.min(h - 1, Math.floorDiv((long) vy + vh, (long) s));
+            
+            for (int row = r0; row <= r1; row++)
+                for (int col = c0; col <= c1; col++)
+                    drawCell(row, col, true);
+        }
+        else {
+            byte[] level = lodLevel(-zoom);
+            int bw = (int) mazePixels(w), bh = (int) mazePixels(h);
+            
+            for (int y = Math.max(0, -vy); y < vh && vy + y < bh; y++) {
+                int base = (vy + y) * bw + vx;
+                for (int x = Math.max(0, -vx); x < vw && vx + x < bw; x++)
+                    viewPx[y * vw + x] = rgb(level[base + x], true);
+            }
+        }
+        
+        viewStale = false;
+    }
+    
+    /*
+     * Returns level k of the level-of-detail pyramid, building the pyramid the first
+     * time it is needed.  After that it is kept up to date by updateLod().
+     */
+    private byte[] lodLevel(int k)
+    {
+        if (lod == null) {
+            int levels = lodLevels();
+            lod = new byte[levels + 1][];
+            for (int j = 1; j <= levels; j++) {
+                int lw = (w + (1 << j) - 1) >> j, lh = (h + (1 << j) - 1) >> j;
+                lod[j] = new byte[lw * lh];
+                for (int r = 0; r < lh; r++)
+                    for (int c = 0; c < lw; c++)
+                        lod[j][r * lw + c] = (byte) blockRank(j, r, c);
+            }
+        }
+        
+        return lod[Math.min(k, lod.length - 1)];
+    }
+    
+    /*
+     * Computes the rank of block [r,c] of level j from the four blocks (or cells) under it.
+     */
+    private int blockRank(int j, int r, int c)
+    {
+        int lw = (w + (1 << (j - 1)) - 1) >> (j - 1), lh = (h + (1 << (j - 1)) - 1) >> (j - 1);
+        int best = 0;
+        
+        for (int rr = 2 * r; rr < Math.min(2 * r + 2, lh); rr++)
+            for (int cc = 2 * c; cc < Math.min(2 * c + 2, lw); cc++)
+                best = Math.max(best, j == 1 ? rank(rr * w + cc) : lod[j - 1][rr * lw + cc]);
+        
+        return best;
+    }
+    
+    /*
+     * Brings the pyramid up to date after a cell changes, stopping at the first
+     * level whose block does not change.
+     */
+    private void updateLod(int row, int col)
+    {
+        for (int j = 1; j < lod.length; j++) {
+            row >>= 1;
+            col >>= 1;
+            int lw = (w + (1 << j) - 1) >> j;
+            byte b = (byte) blockRank(j, row, col);
+            if (lod[j][row * lw + col] == b)
+                break;
+            lod[j][row * lw + col] = b;
+        }
+    }
+    
+    /*
+     * Applies the cells changed since the last call to the pyramid and the view,
+     * clearing their bits in the dirty bitmaps.
+     */
+    private void drainPending()
+    {
+        drain(dirtyCells, dirtyWords, false);
+        drain(wallCells, wallWords, true);
+    }
+    
+    /*
+     * Clears a pair of dirty bitmaps, applying the change to each cell marked in them:
+     * its state, or for walls, its walls.
+     */
+    private void drain(AtomicLongArray cellBits, AtomicLongArray wordBits, boolean walls)
+    {
+        for (int i = 0; i < wordBits.length(); i++) {
+            if (wordBits.get(i) == 0)
+                continue;
+            
+            for (long words = wordBits.getAndSet(i, 0); words != 0; words &= words - 1) {
+                int k = (i << 6) + Long.numberOfTrailingZeros(words);
+                
+                for (long cells = cellBits.getAndSet(k, 0); cells != 0; cells &= cells - 1) {
+                    int c = (k << 6) + Long.numberOfTrailingZeros(cells);
+                    if (!walls)
+                        applyChange(c);
+                    else if (!viewStale && zoom >= 0)
+                        redrawWalls(c / w, c % w);
+                }
+            }
+        }
+    }
+    
+    /*
+     * Redraws the square a cell's walls lie in (its right and bottom walls, and the
+     * corners they share): clears it, then draws the cells around it, clipped to it.
+     */
+    private void redrawWalls(int row, int col)
+    {
+        int s = SIZES[zoom], t = WALLS[zoom];
+        long x = (long) col * s - vx, y = (long) row * s - vy;
+        if (x + s + t <= 0 || y + s + t <= 0 || x >= view.getWidth() || y >= view.getHeight())
+            return;
+        
+        clipX0 = (int) x;
+        clipY0 = (int) y;
+        clipX1 = (int) (x + s + t);
+        clipY1 = (int) (y + s + t);
+        
+        fillView(x, y, s + t, s + t, RGB_E);
+        if (row == 0)
+            fillView(-vx, -vy, (long) w * s + t, t, RGB_WALL);
+        if (col == 0)
+            fillView(-vx, s - vy, t, (long) (h - 1) * s + t, RGB_WALL);
+        for (int r = Math.max(0, row - 1); r <= Math.min(h - 1, row + 1); r++)
+            for (int c = Math.max(0, col - 1); c <= Math.min(w - 1, col + 1); c++)
+                drawCell(r, c, true);
+        
+        clipX0 = clipY0 = 0;
+        clipX1 = clipY1 = Integer.MAX_VALUE;
+    }
+    
+    /*
+     * Brings the pyramid and, unless it is about to be redrawn, the view up to date
+     * with a changed cell.
+     */
+    private void applyChange(int c)
+    {
+        int row = c / w, col = c % w;
+        
+        if (lod != null)
+            updateLod(row, col);
+        if (viewStale)
+            return;
+        
+        if (zoom >= 0)
+            drawCell(row, col, false);
+        else {
+            int k = Math.min(-zoom, lod.length - 1);
+            int bw = (int) mazePixels(w);
+            fillView((col >> k) - vx, (row >> k) - vy, 1, 1,
+                     rgb(lod[k][(row >> k) * bw + (col >> k)], true));
+        }
+    }
+    
+    /*
+     * Keeps the view over the maze: a maze smaller than the view stays at the top
+     * left, with the usual margin.
+     */
+    private void clampView()
+    {
+        int vw = Math.max(1, getWidth()), vh = Math.max(1, getHeight() - TOP);
+        vx = (int) Math.max(-Dmg, Math.min(vx, mazePixels(w) + Dmg - vw));
+        vy = (int) Math.max(-Dmg, Math.min(vy, mazePixels(h) + Dmg - vh));
+        viewStale = true;
+    }
+    
+    /*
+     * Changes the zoom, keeping the maze point under view position (ax, ay) in place.
+     */
+    private void setZoom(int z, int ax, int ay)
+    {
+        z = Math.max(-lodLevels(), Math.min(SIZES.length - 1, z));
+        if (z == zoom)
+            return;
+        
+        double before = zoom >= 0 ? SIZES[zoom] : 1.0 / (1L << -zoom);
+        double after = z >= 0 ? SIZES[z] : 1.0 / (1L << -z);
+        vx = (int) Math.floor((vx + ax) / before * after - ax);
+        vy = (int) Math.floor((vy + ay) / before * after - ay);
+        zoom = z;
+        
+        clampView();
+        repaint();
+    }
+    
+    /*
+     * Number of levels of detail: enough for the whole maze to shrink to one pixel.
+     */
+    private int lodLevels()
+    {
+        int levels = 1;
+        while ((1L << levels) < Math.max(w, h))
+            levels++;
+        return levels;
+    }
+    
+    /*
+     * Chooses the largest zoom at which the whole maze fits in a view of the given size.
+     */
+    private int fitZoom(int vw, int vh)
+    {
+        for (int z = SIZES.length - 1; z >= 0; z--)
+            if ((long) w * SIZES[z] + WALLS[z] + 2 * Dmg <= vw && (long) h * SIZES[z] + WALLS[z] + 2 * Dmg <= vh)
+                return z;
+        
+        int k = 1;
+        while (k < lodLevels() && (((long) w >> k) + 2 * Dmg > vw || ((long) h >> k) + 2 * Dmg > vh))
+            k++;
+        return -k;
+    }
+    
+    /*
+     * Moves the view by a number of pixels.
+     */
+    private void pan(int dx, int dy)
+    {
+        vx += dx;
+        vy += dy;
+        clampView();
+        repaint();
     }
 	
 	
     /**
      * Draws the maze in the player window.
+     * <p>
+     * Only the visible part of the maze is drawn, into an off-screen image the size of
+     * the view.  The image is redrawn when the view moves or is resized; otherwise only
+     * the cells changed since the last call are redrawn in it before it is copied to the screen.
      * 
      * @param   g   display context for GUI
      */
@@ -535,29 +1062,24 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
         // draw text
         drawBanner(g);
         
-        // for cell drawing, ignore margins and header
-        g.translate(Dth + Dmg, Dth + Dmg + 40);
-		
-        // draw top line
-        g.setColor(Color.black);
-        g.fillRect(-Dth, -Dth, w * Dsz + Dth, Dth);
-		
-        // draw left line
-        g.fillRect(-Dth, Dsz - Dth, Dth, (h - 1) * Dsz + Dth);
+        int vw = Math.max(1, getWidth()), vh = Math.max(1, getHeight() - TOP);
+        if (view == null || view.getWidth() != vw || view.getHeight() != vh) {
+            view = new BufferedImage(vw, vh, BufferedImage.TYPE_INT_RGB);
+            viewPx = ((DataBufferInt) view.getRaster().getDataBuffer()).getData();
+            clampView();
+        }
         
-        for (int row = 0; row < h; row++)
-        {
-            for (int col = 0; col < w; col++)
-            {
-                if (getRight(row, col))
-                    g.fillRect(col * Dsz + Dsz - Dth, row * Dsz - Dth, Dth, Dsz + Dth); 
-                if (getBot(row, col))
-                    g.fillRect(col * Dsz - Dth, row * Dsz + Dsz - Dth, Dsz + Dth, Dth);
-                
-                fillCell(g, row, col);
-            }
-            
+        if (wallsReplaced) {
+            wallsReplaced = false;
+            viewStale = true;
         }
+        
+        // the pyramid must see every change, even those the redrawn view already shows
+        drainPending();
+        if (viewStale)
+            renderView();
+        
+        g.drawImage(view, 0, TOP, null);
     }    
 
 
@@ -565,16 +1087,31 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
          * Starts the MazePlay program.
          * <p>
          * <b><i>Usage:</i></b><ul>
-         * <li><tt>java MazePlay -r <i>rows</i> <i>cols</i> [<i>filename</i>]</tt>
+         * <li><tt>java MazePlay -r <i>rows</i> <i>cols</i> [-a <i>algorithm</i>] [-s <i>seed</i>] [<i>filename</i>]</tt>
          * <blockquote>
          * Generates a random maze with dimensions <i>rows</i> x <i>cols</i>
          * (the width is <i>cols</i> and the height is <i>rows</i>).
+         * The <i>algorithm</i> is one of <tt>kruskal</tt> (the default), <tt>parallel</tt>,
+         * <tt>backtracker</tt>, <tt>prim</tt>, <tt>wilson</tt>, <tt>binarytree</tt> or <tt>sidewinder</tt>
+         * (see <code>MazeGenerator</code>).
+         * The same <i>seed</i> always gives the same maze; without one, each run is different.
          * If <i>filename</i> is provided, the maze will be saved as the given filename in addition to being opened in a window.
          * </blockquote></li>
          * <li><tt>java MazePlay -f <i>filename</i></tt>
          * <blockquote>
          * Reads the maze data from the given filename and displays the maze in a window.
          * </blockquote></li>
+         * <li>Either of the above may be followed by <tt>-d <i>ms</i></tt> to set the solver's
+         * pause after each step (default 100), and <tt>-t</tt> to start in turbo mode, which
+         * runs the solver without pauses.  The window is repainted about 60 times a second,
+         * with every cell changed since the last frame, however fast the solver runs.
+         * In the window, <tt>+</tt> and <tt>-</tt> make the solver faster and slower and
+         * <tt>t</tt> switches turbo mode on and off.  The mouse wheel, <tt>z</tt> and <tt>x</tt>
+         * zoom, <tt>f</tt> fits the maze in the window, and dragging or the arrow keys scroll.</li>
+         * <li><tt>java MazePlay -b <i>arguments</i></tt>
+         * <blockquote>
+         * Runs <code>MazeBatch</code> with the remaining arguments, without opening a window.
+         * </blockquote></li>
          * </ul>
          *
          * @param   args    Command-line arguments following usage instructions described above.
@@ -587,6 +1124,35 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
 		}
 		
 		Maze m = null;
+		long delay = 100;
+		boolean turbo = false;
+		
+		if (!args[0].equals("-b")) {
+			// take out the display options, which apply to -r and -f alike
+			java.util.List<String> rest = new java.util.ArrayList<String>();
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-t"))
+					turbo = true;
+				else if (args[i].equals("-d") && i + 1 < args.length) {
+					try {
+						delay = Long.parseLong(args[++i]);
+					} catch (NumberFormatException e) {
+						delay = -1;
+					}
+					if (delay < 0) {
+						System.err.println("MazePlay: error, the delay must be a number of milliseconds");
+						return;
+					}
+				}
+				else
+					rest.add(args[i]);
+			}
+			args = rest.toArray(new String[rest.size()]);
+			if (args.length < 2) {
+				System.err.println("MazePlay: error, incorrect arguments given");
+				return;
+			}
+		}
 		
 		if (args[0].equals("-r")) {
 			// randomly generate maze
@@ -604,18 +1170,48 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
 				return;
 			}
 			
-			m = new Maze(h, w);
+			MazeGenerator gen = MazeGenerator.KRUSKAL;
+			long seed = new SplittableRandom().nextLong();
+			String filename = null;
 			
-			if (args.length >= 4) {
+			for (int i = 3; i < args.length; i++) {
+				if (args[i].equals("-a") && i + 1 < args.length) {
+					try {
+						gen = MazeGenerator.forName(args[++i]);
+					} catch (IllegalArgumentException e) {
+						System.err.println("MazePlay: error, " + e.getMessage());
+						return;
+					}
+				}
+				else if (args[i].equals("-s") && i + 1 < args.length) {
+					try {
+						seed = Long.parseLong(args[++i]);
+					} catch (NumberFormatException e) {
+						System.err.println("MazePlay: error, the seed must be an integer");
+						return;
+					}
+				}
+				else
+					filename = args[i];
+			}
+			
+			m = new Maze(h, w, gen, seed);
+			
+			if (filename != null) {
 				try {
-					m.save(args[3]);
+					m.save(filename);
 				} catch (IOException e) {
 					System.err.print("MazePlay: error writing maze to file ");
-					System.err.println(args[3]);
+					System.err.println(filename);
                     System.err.println(e.getMessage());
 				}
 			}
 		}
+		else if (args[0].equals("-b")) {
+			// headless batch mode
+			MazeBatch.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 		else if (args[0].equals("-f")) {
 			// open filename
 			
@@ -634,7 +1230,11 @@ public class MazePlay extends JComponent implements Runnable, WindowListener, Mo
 			return;
 		}
 				 
-        if (m != null)
-            SwingUtilities.invokeLater(new MazePlay(m));
+        if (m != null) {
+            MazePlay player = new MazePlay(m);
+            player.stepNanos = delay * 1000000L;
+            player.turbo = turbo;
+            SwingUtilities.invokeLater(player);
+        }
 	}
 }
\ No newline at end of file
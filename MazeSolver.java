@@ -0,0 +1,533 @@
+/*
+ * class MazeSolver
+ *
+ * Search algorithms for Maze
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+
+
+/**
+ * Runs searches over the walls of a maze without any GUI.
+ * <p>
+ * A solver is created for one run.  Cells are handled by their linear index
+ * <code>row * cols + col</code>, so mazes with more than 2<sup>31</sup> cells
+ * cannot be solved.  State changes are reported to an optional
+ * <code>SolverListener</code>; with none, solvers run at full speed.
+ */
+final class MazeSolver {
+
+    /** Directions, in the order neighbours are tried. */
+    static final int RIGHT = 0, DOWN = 1, LEFT = 2, UP = 3;
+
+    /** The walls of the maze. */
+    private final WallStore walls;
+
+    /** Number of rows. */
+    private final int rows;
+
+    /** Number of columns. */
+    private final int cols;
+
+    /** Listener for state changes, or <code>null</code>. */
+    private final SolverListener listener;
+
+    /** Cells visited so far. */
+    private final BitSet visited;
+
+    /** Cells on the current path, from the start; the depth-first search stack. */
+    private int[] path = new int[64];
+
+    /** For each cell on the path, the next direction to try from it. */
+    private byte[] next = new byte[64];
+
+    /** Number of cells on the current path. */
+    private int depth = 0;
+
+    /** Number of cells set to F. */
+    private long forward = 0;
+
+    /** Number of cells set to B. */
+    private long backward = 0;
+
+    /** Number of cells expanded. */
+    private long expanded = 0;
+
+
+    /**
+     * Creates a solver for a maze.
+     *
+     * @param   walls       the walls of the maze
+     * @param   rows        number of rows
+     * @param   cols        number of columns
+     * @param   listener    listener for state changes, or <code>null</code>
+     * @throws IllegalStateException    if the maze has too many cells to solve
+     */
+    MazeSolver(WallStore walls, int rows, int cols, SolverListener listener) {
+
+        if ((long) rows * cols > Integer.MAX_VALUE)
+            throw new IllegalStateException(String.format("cannot solve a %dx%d maze", rows, cols));
+
+        this.walls = walls;
+        this.rows = rows;
+        this.cols = cols;
+        this.listener = listener;
+        this.visited = new BitSet(rows * cols);
+
+    } // end of MazeSolver(WallStore, int, int, SolverListener)
+
+
+    /**
+     * Returns the neighbour of a cell in a direction if no wall separates them.
+     *
+     * @param   cell    index of the cell
+     * @param   dir     one of <code>RIGHT</code>, <code>DOWN</code>, <code>LEFT</code>, <code>UP</code>
+     * @return  index of the neighbour, or <code>-1</code> if there is a wall or the maze border in the way
+     */
+    int step(int cell, int dir) {
+
+        switch (dir) {
+            case RIGHT:
+                return (cell % cols < cols - 1 && (walls.get(cell) & WallStore.RIGHT) == 0) ? cell + 1 : -1;
+            case DOWN:
+                return (cell < (rows - 1) * cols && (walls.get(cell) & WallStore.BOT) == 0) ? cell + cols : -1;
+            case LEFT:
+                return (cell % cols > 0 && (walls.get(cell - 1) & WallStore.RIGHT) == 0) ? cell - 1 : -1;
+            case UP:
+                return (cell >= cols && (walls.get(cell - cols) & WallStore.BOT) == 0) ? cell - cols : -1;
+            default:
+                return -1;
+        }
+
+    } // end of step(int, int)
+
+
+    /**
+     * Runs a depth-first search from one cell to another.
+     * <p>
+     * The search keeps its own stack of cells instead of recursing, so paths of any
+     * length can be followed.  Neighbours are tried right, down, left, up; a cell is
+     * set to <code>F</code> when entered and to <code>B</code> when every neighbour has been
+     * tried without reaching the goal.
+     *
+     * @param   start   index of the first cell
+     * @param   goal    index of the cell to reach
+     * @return  the path found and the number of steps taken
+     */
+    SolveResult dfs(int start, int goal) {
+
+        boolean found = enter(start) == goal;
+
+        while (!found && depth > 0) {
+
+            int top = depth - 1;
+            int cell = path[top];
+            int dir = next[top];
+
+            if (dir > UP) {
+                // dead end: back out of this cell
+                setState(cell, SolverListener.B);
+                depth--;
+                continue;
+            }
+
+            next[top] = (byte) (dir + 1);
+
+            int n = step(cell, dir);
+            if (n >= 0 && !visited.get(n))
+                found = enter(n) == goal;
+        }
+
+        return new SolveResult(cols, found ? Arrays.copyOf(path, depth) : null, forward, backward, expanded);
+
+    } // end of dfs(int, int)
+
+
+    /*
+     * Marks a cell visited, pushes it on the path and sets it to F; returns the cell.
+     */
+    private int enter(int cell) {
+
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, 2 * depth);
+            next = Arrays.copyOf(next, 2 * depth);
+        }
+
+        visited.set(cell);
+        path[depth] = cell;
+        next[depth] = RIGHT;
+        depth++;
+        expanded++;
+        setState(cell, SolverListener.F);
+
+        return cell;
+
+    } // end of enter(int)
+
+
+    /**
+     * Runs a breadth-first search from one cell to another, which finds a shortest path
+     * even in mazes with loops.
+     * <p>
+     * The frontier is a ring buffer of cell indices, and each reached cell records the
+     * direction back to the cell it was reached from in two bits, so the search needs
+     * about 2 bits per cell plus the visited set and the queue.  Cells are set to
+     * <code>F</code> as they are expanded; nothing is ever set to <code>B</code>.
+     *
+     * @param   start   index of the first cell
+     * @param   goal    index of the cell to reach
+     * @return  a shortest path and the number of cells expanded (as forward steps)
+     */
+    SolveResult bfs(int start, int goal) {
+
+        long[] parent = newParents();
+        IntQueue queue = new IntQueue();
+
+        visited.set(start);
+        queue.add(start);
+
+        boolean found = false;
+
+        while (!queue.isEmpty()) {
+
+            int cell = queue.remove();
+            expanded++;
+            setState(cell, SolverListener.F);
+
+            if (cell == goal) {
+                found = true;
+                break;
+            }
+
+            for (int dir = RIGHT; dir <= UP; dir++) {
+                int n = step(cell, dir);
+                if (n < 0 || visited.get(n))
+                    continue;
+
+                visited.set(n);
+                setParent(parent, n, dir);
+                queue.add(n);
+            }
+        }
+
+        return new SolveResult(cols, found ? trace(parent, start, goal) : null, forward, backward, expanded);
+
+    } // end of bfs(int, int)
+
+
+    /**
+     * Runs an A* search from one cell to another.
+     * <p>
+     * Cells are expanded in order of moves so far plus the heuristic's estimate of the
+     * moves left, so the search heads towards the goal instead of spreading out evenly.
+     * With a heuristic meeting the conditions of <code>Heuristic</code>, the path found
+     * is a shortest one.  The open set is a binary heap of <code>long</code> keys packing
+     * the estimated total and the cell index; cells whose cost improves are pushed again
+     * and their stale entries skipped.  Cells are set to <code>F</code> as they are expanded.
+     *
+     * @param   start   index of the first cell
+     * @param   goal    index of the cell to reach
+     * @param   h       the heuristic estimating the moves left
+     * @return  the path found and the number of cells expanded
+     */
+    SolveResult astar(int start, int goal, Heuristic h) {
+
+        int goalRow = goal / cols, goalCol = goal % cols;
+
+        long[] parent = newParents();
+        int[] cost = new int[rows * cols];      // moves from start + 1; 0 means not reached
+        LongHeap open = new LongHeap();
+
+        cost[start] = 1;
+        open.add(key(h.estimate(start / cols, start % cols, goalRow, goalCol), start));
+
+        boolean found = false;
+
+        while (!open.isEmpty()) {
+
+            int cell = (int) open.remove();
+            if (visited.get(cell))
+                continue;           // stale entry for a cell already expanded
+
+            visited.set(cell);
+            expanded++;
+            setState(cell, SolverListener.F);
+
+            if (cell == goal) {
+                found = true;
+                break;
+            }
+
+            int g = cost[cell];
+            for (int dir = RIGHT; dir <= UP; dir++) {
+                int n = step(cell, dir);
+                if (n < 0 || visited.get(n) || (cost[n] != 0 && cost[n] <= g + 1))
+                    continue;
+
+                cost[n] = g + 1;
+                setParent(parent, n, dir);
+                open.add(key(g + h.estimate(n / cols, n % cols, goalRow, goalCol), n));
+            }
+        }
+
+        return new SolveResult(cols, found ? trace(parent, start, goal) : null, forward, backward, expanded);
+
+    } // end of astar(int, int, Heuristic)
+
+
+    /*
+     * Packs a priority and a cell into a heap key ordered by priority, then cell.
+     */
+    private static long key(long priority, int cell) {
+        return (priority << 32) | cell;
+    } // end of key(long, int)
+
+
+    /**
+     * Runs a breadth-first search from both ends at once, stopping when the two searches meet.
+     * <p>
+     * Each round expands a whole level of whichever side has the smaller frontier.
+     * The first level on which the sides meet gives a shortest path, found after
+     * expanding roughly two balls of half the radius a one-sided search needs.
+     * Each cell belongs to the side that reached it first and records the direction
+     * back towards that side's end in two bits.  Cells are set to <code>F</code> as they
+     * are expanded by either side.
+     *
+     * @param   start   index of the first cell
+     * @param   goal    index of the cell to reach
+     * @return  a shortest path and the number of cells expanded by both sides
+     */
+    SolveResult bidirectional(int start, int goal) {
+
+        if (start == goal) {
+            expanded++;
+            setState(start, SolverListener.F);
+            return new SolveResult(cols, new int[] { start }, forward, backward, expanded);
+        }
+
+        long[] parent = newParents();
+        BitSet fromGoal = new BitSet(rows * cols);     // visited cells reached from the goal side
+        IntQueue qs = new IntQueue();
+        IntQueue qg = new IntQueue();
+
+        visited.set(start);
+        visited.set(goal);
+        fromGoal.set(goal);
+        qs.add(start);
+        qg.add(goal);
+
+        // the two cells where the sides meet: a is on the start side, b on the goal side
+        int a = -1, b = -1;
+
+        while (a < 0 && !qs.isEmpty() && !qg.isEmpty()) {
+
+            boolean startSide = qs.size() <= qg.size();
+            IntQueue q = startSide ? qs : qg;
+
+            for (int level = q.size(); level > 0 && a < 0; level--) {
+
+                int cell = q.remove();
+                expanded++;
+                setState(cell, SolverListener.F);
+
+                for (int dir = RIGHT; dir <= UP; dir++) {
+                    int n = step(cell, dir);
+                    if (n < 0)
+                        continue;
+
+                    if (visited.get(n)) {
+                        if (fromGoal.get(n) == startSide) {
+                            // n was reached by the other side
+                            a = startSide ? cell : n;
+                            b = startSide ? n : cell;
+                            break;
+                        }
+                        continue;
+                    }
+
+                    visited.set(n);
+                    if (!startSide)
+                        fromGoal.set(n);
+                    setParent(parent, n, dir);
+                    q.add(n);
+                }
+            }
+        }
+
+        if (a < 0)
+            return new SolveResult(cols, null, forward, backward, expanded);
+
+        // start .. a, then b .. goal
+        int[] head = trace(parent, start, a);
+        int[] tail = trace(parent, goal, b);
+        int[] p = Arrays.copyOf(head, head.length + tail.length);
+        for (int i = 0; i < tail.length; i++)
+            p[head.length + i] = tail[tail.length - 1 - i];
+
+        return new SolveResult(cols, p, forward, backward, expanded);
+
+    } // end of bidirectional(int, int)
+
+
+    /*
+     * Allocates packed parent directions, 2 bits per cell.
+     */
+    private long[] newParents() {
+        return new long[(int) (((long) rows * cols + 31) / 32)];
+    } // end of newParents()
+
+
+    /*
+     * Records that cell n was reached by moving in direction dir, so the way
+     * back is the opposite direction.
+     */
+    private static void setParent(long[] parent, int n, int dir) {
+        int shift = (n & 31) << 1;
+        parent[n >>> 5] = (parent[n >>> 5] & ~(3L << shift)) | (long) ((dir + 2) & 3) << shift;
+    } // end of setParent(long[], int, int)
+
+
+    /*
+     * Follows packed parent directions from goal back to start and returns the
+     * path from start to goal.
+     */
+    private int[] trace(long[] parent, int start, int goal) {
+
+        int n = 1;
+        for (int c = goal; c != start; c = back(parent, c))
+            n++;
+
+        int[] p = new int[n];
+        int c = goal;
+        for (int k = n - 1; k > 0; k--) {
+            p[k] = c;
+            c = back(parent, c);
+        }
+        p[0] = start;
+
+        return p;
+
+    } // end of trace(long[], int, int)
+
+
+    /*
+     * Returns the cell a search reached c from.
+     */
+    private int back(long[] parent, int c) {
+
+        switch ((int) (parent[c >>> 5] >>> ((c & 31) << 1)) & 3) {
+            case RIGHT: return c + 1;
+            case DOWN:  return c + cols;
+            case LEFT:  return c - 1;
+            default:    return c - cols;
+        }
+
+    } // end of back(long[], int)
+
+
+    /*
+     * Counts a state change and reports it to the listener.
+     */
+    private void setState(int cell, int state) {
+
+        if (state == SolverListener.F)
+            forward++;
+        else if (state == SolverListener.B)
+            backward++;
+
+        if (listener != null)
+            listener.setState(cell / cols, cell % cols, state);
+
+    } // end of setState(int, int)
+
+
+
+    /*
+     * A FIFO queue of ints in a power-of-two ring buffer that doubles when full.
+     */
+    private static final class IntQueue {
+
+        private int[] q = new int[1024];
+        private int head = 0, size = 0;     // elements are q[head .. head+size), wrapping around
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(int x) {
+            if (size == q.length) {
+                // full: unroll the ring into a buffer twice the size
+                int[] r = new int[2 * q.length];
+                System.arraycopy(q, head, r, 0, q.length - head);
+                System.arraycopy(q, 0, r, q.length - head, head);
+                q = r;
+                head = 0;
+            }
+            q[(head + size++) & (q.length - 1)] = x;
+        }
+
+        int remove() {
+            int x = q[head];
+            head = (head + 1) & (q.length - 1);
+            size--;
+            return x;
+        }
+    } // end of IntQueue
+
+
+    /*
+     * A binary min-heap of longs that grows as needed.  remove() returns the low 32 bits
+     * of the smallest key, which is all the solvers need.
+     */
+    private static final class LongHeap {
+
+        private long[] h = new long[1024];
+        private int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(long x) {
+            if (size == h.length)
+                h = Arrays.copyOf(h, 2 * size);
+
+            // sift up
+            int i = size++;
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (h[p] <= x)
+                    break;
+                h[i] = h[p];
+                i = p;
+            }
+            h[i] = x;
+        }
+
+        long remove() {
+            long top = h[0];
+            long x = h[--size];
+
+            // sift down
+            int i = 0;
+            for (int c = 1; c < size; c = 2 * i + 1) {
+                if (c + 1 < size && h[c + 1] < h[c])
+                    c++;
+                if (x <= h[c])
+                    break;
+                h[i] = h[c];
+                i = c;
+            }
+            h[i] = x;
+
+            return top & 0xFFFFFFFFL;
+        }
+    } // end of LongHeap
+
+} // end of MazeSolver
@@ -0,0 +1,227 @@
+/*
+ * class MazeTextReader
+ *
+ * Parser for the text maze file format
+ * COSC 102, Colgate University
+ */
+
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Reads the lines of a text maze file straight from a channel.
+ * <p>
+ * A text maze file has a header line <code>maze <i>width</i> <i>height</i></code>
+ * followed by one line per cell, row by row, each holding two integers: the right
+ * wall flag and the bottom wall flag (non-zero meaning the wall is present).
+ * Extra tokens at the end of a line are ignored.
+ * <p>
+ * Cell lines are parsed byte by byte out of a reusable buffer, so reading a
+ * cell allocates nothing.  Lines may end in <code>\n</code>, <code>\r\n</code>
+ * or <code>\r</code>, and tokens are separated by spaces, tabs, vertical tabs
+ * or form feeds, as with <code>String.split("\\s+")</code>.
+ */
+final class MazeTextReader {
+
+    /** Returned by <code>readCell()</code> for a line that is not a valid cell description. */
+    static final int BAD = -1;
+
+    /** Value returned by <code>peek()</code> at the end of the file. */
+    private static final int EOF = -1;
+
+    /** Size of the read buffer. */
+    private static final int BUFFER = 1 << 16;
+
+    /** The channel being read. */
+    private final ReadableByteChannel ch;
+
+    /** Read buffer, wrapping <code>bytes</code>. */
+    private final ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+
+    /** Backing array of <code>buf</code>. */
+    private final byte[] bytes = buf.array();
+
+    /** Position of the next unread byte in <code>bytes</code>. */
+    private int pos = 0;
+
+    /** Number of valid bytes in <code>bytes</code>. */
+    private int lim = 0;
+
+    /** Set when the last token parsed was not an integer. */
+    private boolean bad;
+
+
+    /**
+     * Creates a reader for a channel, starting at its current position.
+     *
+     * @param   ch  the channel to read from
+     */
+    MazeTextReader(ReadableByteChannel ch) {
+        this.ch = ch;
+    } // end of MazeTextReader(ReadableByteChannel)
+
+
+    /**
+     * Indicates whether every line has been read.
+     *
+     * @return  <code>true</code> if there are no more lines
+     * @throws IOException  if an error occurs while reading
+     */
+    boolean atEnd() throws IOException {
+        return peek() == EOF;
+    } // end of atEnd()
+
+
+    /**
+     * Reads the rest of the current line as a string, for the header.
+     *
+     * @return  the line, without its terminator
+     * @throws IOException  if an error occurs while reading
+     */
+    String readLine() throws IOException {
+
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int c = peek(); !isEol(c); c = peek()) {
+            line.write(c);
+            pos++;
+        }
+        skipLine();
+
+        return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+
+    } // end of readLine()
+
+
+    /**
+     * Reads a cell description line.
+     *
+     * @return  the cell's walls as a combination of <code>WallStore.RIGHT</code> and
+     *          <code>WallStore.BOT</code>, or <code>BAD</code> if the line does not start
+     *          with two integers
+     * @throws IOException  if an error occurs while reading
+     */
+    int readCell() throws IOException {
+
+        bad = false;
+
+        boolean r = token();
+        if (!bad) {
+            skipBlanks();
+            if (isEol(peek()))
+                bad = true;
+        }
+        boolean b = !bad && token();
+
+        skipLine();
+
+        if (bad)
+            return BAD;
+
+        return (r ? WallStore.RIGHT : 0) | (b ? WallStore.BOT : 0);
+
+    } // end of readCell()
+
+
+    /*
+     * Parses an integer token at the current position, as Integer.parseInt would,
+     * and returns whether it is non-zero.  Sets bad if the token is not an int.
+     */
+    private boolean token() throws IOException {
+
+        int c = peek();
+        boolean neg = false;
+        if (c == '-' || c == '+') {
+            neg = (c == '-');
+            pos++;
+            c = peek();
+        }
+
+        if (c < '0' || c > '9') {
+            bad = true;
+            return false;
+        }
+
+        // stop accumulating once the value is out of range, but keep consuming digits
+        long v = 0;
+        for ( ; c >= '0' && c <= '9'; c = peek()) {
+            if (v <= Integer.MAX_VALUE)
+                v = v * 10 + (c - '0');
+            pos++;
+        }
+
+        if (v > (neg ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE))
+            bad = true;
+        if (!isEol(c) && !isBlank(c))
+            bad = true;
+
+        return v != 0;
+
+    } // end of token()
+
+
+    /*
+     * Skips spaces and tabs within the current line.
+     */
+    private void skipBlanks() throws IOException {
+        while (isBlank(peek()))
+            pos++;
+    } // end of skipBlanks()
+
+
+    /*
+     * Skips to the start of the next line.
+     */
+    private void skipLine() throws IOException {
+
+        int c = peek();
+        while (!isEol(c)) {
+            pos++;
+            c = peek();
+        }
+
+        if (c != EOF) {
+            pos++;
+            if (c == '\r' && peek() == '\n')
+                pos++;
+        }
+
+    } // end of skipLine()
+
+
+    /*
+     * Returns the next unread byte without consuming it, or EOF.
+     */
+    private int peek() throws IOException {
+
+        if (pos == lim) {
+            buf.clear();
+            int n;
+            do {
+                n = ch.read(buf);
+            } while (n == 0);
+
+            pos = 0;
+            lim = Math.max(n, 0);
+            if (n < 0)
+                return EOF;
+        }
+
+        return bytes[pos] & 0xFF;
+
+    } // end of peek()
+
+
+    private static boolean isEol(int c) {
+        return c == '\n' || c == '\r' || c == EOF;
+    } // end of isEol(int)
+
+
+    private static boolean isBlank(int c) {
+        return c == ' ' || c == '\t' || c == 0x0B || c == '\f';
+    } // end of isBlank(int)
+
+} // end of MazeTextReader
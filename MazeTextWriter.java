@@ -0,0 +1,133 @@
+/*
+ * class MazeTextWriter
+ *
+ * Writer for the text maze file format
+ * COSC 102, Colgate University
+ */
+
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Writes a maze in the text maze file format read by <code>MazeTextReader</code>.
+ * <p>
+ * Each cell line is copied into a large byte buffer from one of four precomputed
+ * lines, one per wall code, so writing a cell does no formatting and allocates
+ * nothing.  The output is byte for byte what
+ * <code>printf("maze %d %d%n", ...)</code> and <code>printf("%d %d%n", ...)</code>
+ * would produce, using the platform line separator.
+ */
+final class MazeTextWriter {
+
+    /** Size of the write buffer. */
+    private static final int BUFFER = 1 << 16;
+
+    /** Cell lines indexed by wall code: "0 0", "0 1", "1 0", "1 1", each with a line separator. */
+    private static final byte[][] CELL = new byte[4][];
+
+    static {
+        for (int code = 0; code < 4; code++) {
+            int r = (code & WallStore.RIGHT) != 0 ? 1 : 0;
+            int b = (code & WallStore.BOT) != 0 ? 1 : 0;
+            CELL[code] = (r + " " + b + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /** The stream being written. */
+    private final OutputStream out;
+
+    /** Write buffer. */
+    private final byte[] buf = new byte[BUFFER];
+
+    /** Number of bytes in <code>buf</code>. */
+    private int n = 0;
+
+
+    /**
+     * Creates a writer on a stream.  The stream is not closed by the writer.
+     *
+     * @param   out     the stream to write to
+     */
+    MazeTextWriter(OutputStream out) {
+        this.out = out;
+    } // end of MazeTextWriter(OutputStream)
+
+
+    /**
+     * Writes the header line.
+     *
+     * @param   width   number of columns
+     * @param   height  number of rows
+     * @throws IOException  if an error occurs while writing
+     */
+    void writeHeader(int width, int height) throws IOException {
+
+        byte[] line = String.format("maze %d %d%n", width, height).getBytes(StandardCharsets.US_ASCII);
+        if (n + line.length > BUFFER)
+            drain();
+        System.arraycopy(line, 0, buf, n, line.length);
+        n += line.length;
+
+    } // end of writeHeader(int, int)
+
+
+    /**
+     * Writes one cell description line.
+     *
+     * @param   code    the cell's walls, a combination of <code>WallStore.RIGHT</code> and <code>WallStore.BOT</code>
+     * @throws IOException  if an error occurs while writing
+     */
+    void writeCell(int code) throws IOException {
+
+        byte[] line = CELL[code & 3];
+        if (n + line.length > BUFFER)
+            drain();
+        System.arraycopy(line, 0, buf, n, line.length);
+        n += line.length;
+
+    } // end of writeCell(int)
+
+
+    /**
+     * Writes a whole maze: the header, then every cell of the store row by row.
+     *
+     * @param   maze    the walls to write
+     * @param   width   number of columns
+     * @param   height  number of rows
+     * @throws IOException  if an error occurs while writing
+     */
+    void write(WallStore maze, int width, int height) throws IOException {
+
+        writeHeader(width, height);
+
+        long cells = (long) width * height;
+        for (long i = 0; i < cells; i++)
+            writeCell(maze.get(i));
+
+        flush();
+
+    } // end of write(WallStore, int, int)
+
+
+    /**
+     * Writes any buffered bytes to the stream and flushes it.
+     *
+     * @throws IOException  if an error occurs while writing
+     */
+    void flush() throws IOException {
+        drain();
+        out.flush();
+    } // end of flush()
+
+
+    /*
+     * Empties the buffer into the stream.
+     */
+    private void drain() throws IOException {
+        out.write(buf, 0, n);
+        n = 0;
+    } // end of drain()
+
+} // end of MazeTextWriter
@@ -0,0 +1,153 @@
+/*
+ * class PackedWallStore
+ *
+ * In-memory wall storage for Maze
+ * COSC 102, Colgate University
+ */
+
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+
+/**
+ * Keeps the walls of a maze on the heap, packed into a flat <code>long</code> array.
+ * Cell <code>i</code> takes the two bits starting at bit <code>2*(i%32)</code>
+ * of word <code>i/32</code>.
+ */
+class PackedWallStore implements WallStore {
+
+    /** Size of the buffer used to move the words to and from files. */
+    private static final int IO_BUFFER = 1 << 20;
+
+    /** Atomic access to the elements of <code>words</code>, for <code>get()</code> and <code>put()</code>. */
+    private static final VarHandle WORD = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /** The packed wall codes. */
+    private final long[] words;
+
+    /** Number of cells. */
+    private final long cells;
+
+
+    /**
+     * Creates a store for the given number of cells, with no walls.
+     *
+     * @param   cells   number of cells
+     * @throws IllegalArgumentException  if <code>cells</code> is negative or too large for a Java array
+     */
+    PackedWallStore(long cells) {
+
+        if (cells < 0 || (cells + 31) / 32 > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("cannot store " + cells + " cells in memory");
+
+        this.cells = cells;
+        words = new long[(int) ((cells + 31) / 32)];
+
+    } // end of PackedWallStore(long)
+
+
+    public long cells() {
+        return cells;
+    } // end of cells()
+
+
+    public int get(long i) {
+        // an opaque read is never torn, even while put() changes the word
+        return (int) ((long) WORD.getOpaque(words, (int) (i >>> 5)) >>> ((i & 31) << 1)) & 3;
+    } // end of get(long)
+
+
+    public void set(long i, int bits) {
+        words[(int) (i >>> 5)] |= (long) bits << ((i & 31) << 1);
+    } // end of set(long, int)
+
+
+    public void clear(long i, int bits) {
+        words[(int) (i >>> 5)] &= ~((long) bits << ((i & 31) << 1));
+    } // end of clear(long, int)
+
+
+    public void put(long i, int bits) {
+
+        int w = (int) (i >>> 5);
+        int shift = (int) (i & 31) << 1;
+
+        // retry if another put changed a different cell of the same word meanwhile
+        long old, code;
+        do {
+            old = (long) WORD.getVolatile(words, w);
+            code = (old & ~(3L << shift)) | (long) (bits & 3) << shift;
+        } while (!WORD.compareAndSet(words, w, old, code));
+
+    } // end of put(long, int)
+
+
+    public void fill(int bits) {
+        // repeat the 2-bit code across the whole word
+        Arrays.fill(words, (bits & 3) * 0x5555555555555555L);
+    } // end of fill(int)
+
+
+    public void copyFrom(WallStore src) {
+
+        if (!(src instanceof PackedWallStore) || src.cells() != cells) {
+            WallStore.super.copyFrom(src);
+            return;
+        }
+
+        long[] from = ((PackedWallStore) src).words;
+        System.arraycopy(from, 0, words, 0, words.length);
+
+    } // end of copyFrom(WallStore)
+
+
+    public void read(FileChannel ch, long pos) throws IOException {
+
+        // the payload is the word array in little-endian order
+        ByteBuffer buf = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        long start = pos;
+
+        for (int w = 0; w < words.length; ) {
+            buf.clear();
+            buf.limit((int) Math.min(IO_BUFFER, 8L * (words.length - w)));
+            while (buf.hasRemaining()) {
+                int n = ch.read(buf, pos);
+                if (n < 0)
+                    throw new EOFException(String.format("payload ends after %d of %d bytes", pos - start, 8L * words.length));
+                pos += n;
+            }
+            buf.flip();
+
+            int n = buf.remaining() / 8;
+            buf.asLongBuffer().get(words, w, n);
+            w += n;
+        }
+
+    } // end of read(FileChannel, long)
+
+
+    public void write(FileChannel ch, long pos) throws IOException {
+
+        ByteBuffer buf = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int w = 0; w < words.length; ) {
+            int n = Math.min(IO_BUFFER / 8, words.length - w);
+            buf.clear();
+            buf.asLongBuffer().put(words, w, n);
+            buf.limit(8 * n);
+            while (buf.hasRemaining())
+                pos += ch.write(buf, pos);
+            w += n;
+        }
+
+    } // end of write(FileChannel, long)
+
+
+    public void flush() {
+    } // end of flush()
+
+} // end of PackedWallStore
@@ -0,0 +1,268 @@
+/*
+ * class ParallelKruskalGenerator
+ *
+ * Random maze generation across several cores
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Generates random perfect mazes on several threads.
+ * <p>
+ * The maze is cut into horizontal bands of whole rows.  Every wall gets a random
+ * weight, and the maze is the minimum spanning tree Kruskal's algorithm builds from
+ * those weights, found in two steps.  On a <code>ForkJoinPool</code> worker, each
+ * band shuffles all of its interior walls, weighs them by their place in the shuffle,
+ * and runs Kruskal over every one of them with its own <code>DisjointSets</code>,
+ * which carves the band into a tree.  Along the way the band records a small tree over
+ * the cells of its top and bottom rows: whenever Kruskal joins two sets that both hold
+ * such a cell, it notes an edge between them with the weight of the wall it opened.
+ * That edge is the heaviest wall on the band's path between the two cells.
+ * <p>
+ * A final sequential pass runs Kruskal over just the walls between bands, each with a
+ * random weight, and the bands' small trees.  A wall between bands that it takes is
+ * opened; an edge of a band's tree that it turns down closes the wall the edge stands
+ * for again, since that wall is the heaviest on a cycle through the neighbouring band.
+ * The result is exactly the minimum spanning tree over all the weights, so the maze is
+ * drawn the same way as one from <code>KruskalGenerator</code> and the bands meet
+ * through as many openings as any two rows do.  The final pass touches about three
+ * entries per column for each boundary between bands, which is a small fraction of the
+ * work for any width.
+ * <p>
+ * Band heights are multiples of 32 rows, so every band starts on a cell index that is
+ * a multiple of 32 and bands never share a word of a <code>PackedWallStore</code>
+ * (or a byte of a <code>MappedWallStore</code>); workers write without locking.
+ * <p>
+ * Bands depend only on the maze's dimensions, not on the number of threads.  Each band
+ * draws from its own <code>SplittableRandom</code>, split off a generator seeded by the
+ * caller's generator in band order before any work starts, and the final pass uses what is left of that
+ * generator.  So a given seed produces the same maze whatever the number of threads.
+ */
+final class ParallelKruskalGenerator implements MazeGenerator {
+
+    /** Approximate number of cells per band. */
+    private static final int BAND_CELLS = 1 << 18;
+
+    /** Number of worker threads. */
+    private final int threads;
+
+
+    /**
+     * Creates a generator that uses a given number of threads.
+     *
+     * @param   threads     number of worker threads, at least 1
+     */
+    ParallelKruskalGenerator(int threads) {
+
+        if (threads < 1)
+            throw new IllegalArgumentException("cannot generate a maze on " + threads + " threads");
+
+        this.threads = threads;
+
+    } // end of ParallelKruskalGenerator(int)
+
+
+    public String name() {
+        return "parallel";
+    }
+
+
+    /**
+     * Returns the number of rows in each band (the last band may be shorter).
+     *
+     * @param   rows    number of rows of the maze
+     * @param   cols    number of columns of the maze
+     * @return  band height, a multiple of 32 unless the maze is a single band
+     */
+    static int bandRows(int rows, int cols) {
+
+        int h = (BAND_CELLS + cols - 1) / cols;
+        h = (h + 31) & ~31;
+
+        return Math.min(h, rows);
+
+    } // end of bandRows(int, int)
+
+
+    /**
+     * Fills a store with a random perfect maze.
+     *
+     * @param   walls       the store to fill; its previous contents are discarded
+     * @param   rows        number of rows
+     * @param   cols        number of columns; <code>rows*cols</code> is at most <code>Integer.MAX_VALUE/2</code>,
+     *                      so that wall numbers fit in an <code>int</code>
+     * @param   rd          source of randomness
+     */
+    public void generate(final WallStore walls, int rows, final int cols, SplittableRandom rd) {
+
+        walls.fill(WallStore.RIGHT | WallStore.BOT);
+
+        final int h = bandRows(rows, cols);
+        final int bands = (rows + h - 1) / h;
+
+        // one random stream per band, split off in a fixed order
+        final SplittableRandom[] streams = new SplittableRandom[bands];
+        for (int b = 0; b < bands; b++)
+            streams[b] = rd.split();
+
+        final int[][] trees = new int[bands][];
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(bands);
+
+            for (int b = 0; b < bands; b++) {
+                final int band = b;
+                final int first = b * h;
+                final int n = Math.min(h, rows - first);
+                tasks.add(pool.submit(new Runnable() {
+                    public void run() {
+                        trees[band] = carveBand(walls, cols, first, n, band, bands, streams[band]);
+                    }
+                }));
+            }
+
+            for (ForkJoinTask<?> t : tasks)
+                t.join();
+        } finally {
+            pool.shutdown();
+        }
+
+        if (bands > 1)
+            joinBands(walls, cols, h, trees, rd);
+
+    } // end of generate(WallStore, int, int, SplittableRandom)
+
+
+    /*
+     * Runs Kruskal over all the interior walls of a band, opening the ones it takes.
+     * Returns the band's tree over its edge cells as groups of four ints: the two
+     * edge cells' numbers (see edgeCell()), the weight, and the number over the whole
+     * maze of the wall the edge stands for.
+     */
+    private static int[] carveBand(WallStore walls, int cols, int firstRow, int rows, int band, int bands,
+                                   SplittableRandom rd) {
+
+        int base = firstRow * cols;
+        int[] list = KruskalGenerator.shuffledWalls(cols, rows, rd);
+
+        // for the root of each set, one of its edge cells, or -1 if it has none
+        int[] edge = new int[rows * cols];
+        for (int i = 0; i < edge.length; i++)
+            edge[i] = edgeCell(i, cols, rows, band, bands);
+
+        int[] tree = new int[64];
+        int m = 0;
+
+        DisjointSets ds = new DisjointSets(rows * cols);
+        for (int k = 0; k < list.length && ds.count() > 1; k++) {
+
+            int i = list[k] >> 1;
+            boolean bot = (list[k] & 1) == 1;
+            int a = ds.find(i);
+            int b = ds.find(bot ? i + cols : i + 1);
+
+            if (a == b)
+                continue;
+
+            ds.union(a, b);
+            walls.clear(base + i, bot ? WallStore.BOT : WallStore.RIGHT);
+
+            int ea = edge[a], eb = edge[b];
+            if (ea >= 0 && eb >= 0) {
+                if (m + 4 > tree.length)
+                    tree = Arrays.copyOf(tree, 2 * tree.length);
+                tree[m++] = ea;
+                tree[m++] = eb;
+                tree[m++] = weight(k, list.length);
+                tree[m++] = list[k] + 2 * base;
+            }
+            edge[ds.find(a)] = ea >= 0 ? ea : eb;
+        }
+
+        return Arrays.copyOf(tree, m);
+
+    } // end of carveBand(WallStore, int, int, int, int, int, SplittableRandom)
+
+
+    /*
+     * Returns the number of cell i of a band among the cells next to a boundary
+     * between bands, or -1 if it is not next to one.  The cells above boundary s
+     * are numbered from 2*s*cols, and the cells below it from (2*s+1)*cols.
+     */
+    private static int edgeCell(int i, int cols, int rows, int band, int bands) {
+
+        int r = i / cols, c = i % cols;
+
+        if (band > 0 && r == 0)
+            return (2 * band - 1) * cols + c;
+        if (band < bands - 1 && r == rows - 1)
+            return 2 * band * cols + c;
+
+        return -1;
+
+    } // end of edgeCell(int, int, int, int, int)
+
+
+    /*
+     * Returns the weight of the k-th of n shuffled walls, spread evenly over
+     * [0, 2^31) so it can be compared with the weights of other bands.
+     */
+    private static int weight(int k, int n) {
+        return (int) (((2L * k + 1) << 30) / n);
+    } // end of weight(int, int)
+
+
+    /*
+     * Runs Kruskal over the walls between bands and the bands' trees over their
+     * edge cells, opening the walls between bands it takes and closing again the
+     * walls of tree edges it turns down.
+     */
+    private static void joinBands(WallStore walls, int cols, int h, int[][] trees, SplittableRandom rd) {
+
+        int seams = (trees.length - 1) * cols;
+        int n = seams;
+        for (int[] t : trees)
+            n += t.length / 4;
+
+        // weight in the high half, entry number in the low half;
+        // entries below seams are walls between bands, the rest tree edges in band order
+        long[] order = new long[n];
+        for (int k = 0; k < seams; k++)
+            order[k] = (long) (rd.nextInt() >>> 1) << 32 | k;
+
+        int[] tree = new int[4 * (n - seams)];
+        int p = 0;
+        for (int b = 0; b < trees.length; b++) {
+            System.arraycopy(trees[b], 0, tree, p, trees[b].length);
+            p += trees[b].length;
+            trees[b] = null;
+        }
+        for (int k = seams; k < n; k++)
+            order[k] = (long) tree[4 * (k - seams) + 2] << 32 | k;
+
+        Arrays.sort(order);
+
+        DisjointSets ds = new DisjointSets(2 * seams);
+        for (long key : order) {
+
+            int k = (int) key;
+
+            if (k < seams) {
+                int s = k / cols, c = k % cols;
+                if (ds.union(2 * s * cols + c, (2 * s + 1) * cols + c) != -1)
+                    walls.clear((long) ((s + 1) * h - 1) * cols + c, WallStore.BOT);
+            } else {
+                int q = 4 * (k - seams);
+                if (ds.union(tree[q], tree[q + 1]) == -1)
+                    walls.set(tree[q + 3] >> 1, (tree[q + 3] & 1) == 1 ? WallStore.BOT : WallStore.RIGHT);
+            }
+        }
+
+    } // end of joinBands(WallStore, int, int, int[][], SplittableRandom)
+
+} // end of ParallelKruskalGenerator
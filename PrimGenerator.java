@@ -0,0 +1,103 @@
+/*
+ * class PrimGenerator
+ *
+ * Random maze generation with Prim's algorithm
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+
+
+/**
+ * Generates random perfect mazes with randomized Prim's algorithm: the maze grows
+ * from a random cell, and each step adds a random cell of the frontier (the cells
+ * next to the maze but not in it yet), joined to a random neighbour already in the maze.
+ * <p>
+ * The frontier is a plain <code>int</code> array with constant-time removal of a
+ * random element (the last element is moved into the hole), and each cell's state
+ * is a single byte.
+ */
+final class PrimGenerator implements MazeGenerator {
+
+    /** Cell states. */
+    private static final byte OUT = 0, FRONTIER = 1, IN = 2;
+
+    /** Directions, in the order used by <code>MazeSolver</code>. */
+    private static final int RIGHT = 0, DOWN = 1, LEFT = 2, UP = 3;
+
+
+    public String name() {
+        return "prim";
+    }
+
+
+    public void generate(WallStore walls, int rows, int cols, SplittableRandom rd) {
+
+        walls.fill(WallStore.RIGHT | WallStore.BOT);
+
+        int n = rows * cols;
+        byte[] state = new byte[n];
+        int[] frontier = new int[n];
+        int size = 0;
+        int[] dirs = new int[4];
+
+        int cell = rd.nextInt(n);
+
+        while (true) {
+
+            state[cell] = IN;
+            int row = cell / cols;
+            int col = cell - row * cols;
+
+            // move the cell's neighbours that are not in the maze yet to the frontier
+            if (col < cols - 1 && state[cell + 1] == OUT) {
+                state[cell + 1] = FRONTIER;
+                frontier[size++] = cell + 1;
+            }
+            if (row < rows - 1 && state[cell + cols] == OUT) {
+                state[cell + cols] = FRONTIER;
+                frontier[size++] = cell + cols;
+            }
+            if (col > 0 && state[cell - 1] == OUT) {
+                state[cell - 1] = FRONTIER;
+                frontier[size++] = cell - 1;
+            }
+            if (row > 0 && state[cell - cols] == OUT) {
+                state[cell - cols] = FRONTIER;
+                frontier[size++] = cell - cols;
+            }
+
+            if (size == 0)
+                break;
+
+            // take a random frontier cell ...
+            int k = rd.nextInt(size);
+            cell = frontier[k];
+            frontier[k] = frontier[--size];
+
+            // ... and join it to a random neighbour in the maze
+            row = cell / cols;
+            col = cell - row * cols;
+            k = 0;
+            if (col < cols - 1 && state[cell + 1] == IN)
+                dirs[k++] = RIGHT;
+            if (row < rows - 1 && state[cell + cols] == IN)
+                dirs[k++] = DOWN;
+            if (col > 0 && state[cell - 1] == IN)
+                dirs[k++] = LEFT;
+            if (row > 0 && state[cell - cols] == IN)
+                dirs[k++] = UP;
+
+            switch (dirs[k == 1 ? 0 : rd.nextInt(k)]) {
+                case RIGHT: walls.clear(cell, WallStore.RIGHT);        break;
+                case DOWN:  walls.clear(cell, WallStore.BOT);          break;
+                case LEFT:  walls.clear(cell - 1, WallStore.RIGHT);    break;
+                default:    walls.clear(cell - cols, WallStore.BOT);   break;
+            }
+
+        } // end of while
+
+    } // end of generate(WallStore, int, int, SplittableRandom)
+
+} // end of PrimGenerator
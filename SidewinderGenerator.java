@@ -0,0 +1,58 @@
+/*
+ * class SidewinderGenerator
+ *
+ * Random maze generation with the sidewinder algorithm
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+
+
+/**
+ * Generates random perfect mazes with the sidewinder algorithm.  The bottom row is
+ * one open corridor.  Every other row is cut into runs of random length, the cells
+ * of a run are joined left to right, and each run opens the bottom wall of one of its
+ * cells, chosen at random, to join the row below.
+ * <p>
+ * Each row is decided on its own, so the algorithm needs no memory beyond the walls.
+ * The mazes have long horizontal passages and an open bottom row.
+ */
+final class SidewinderGenerator implements MazeGenerator {
+
+    public String name() {
+        return "sidewinder";
+    }
+
+
+    public void generate(WallStore walls, int rows, int cols, SplittableRandom rd) {
+
+        walls.fill(WallStore.RIGHT | WallStore.BOT);
+
+        long cell = 0;
+
+        for (int r = 0; r < rows - 1; r++) {
+
+            long run = cell;
+
+            for (int c = 0; c < cols; c++, cell++) {
+                if (c < cols - 1 && rd.nextBoolean()) {
+                    // carry the run on to the right
+                    walls.clear(cell, WallStore.RIGHT);
+                }
+                else {
+                    // close the run, opening it downwards from one of its cells
+                    walls.clear(run + rd.nextInt((int) (cell - run) + 1), WallStore.BOT);
+                    run = cell + 1;
+                }
+            }
+
+        } // end of for
+
+        // the bottom row is a single corridor
+        for (int c = 0; c < cols - 1; c++, cell++)
+            walls.clear(cell, WallStore.RIGHT);
+
+    } // end of generate(WallStore, int, int, SplittableRandom)
+
+} // end of SidewinderGenerator
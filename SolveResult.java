@@ -0,0 +1,153 @@
+/*
+ * class SolveResult
+ *
+ * Outcome of a maze solver run
+ * COSC 102, Colgate University
+ */
+
+
+/**
+ * Describes the outcome of running a maze solver: whether the goal was reached,
+ * the path found, and how much work it took.
+ * <p>
+ * Cells are given by their linear index <code>row * width + col</code>.
+ * The step counts are the ones <code>MazePlay</code> shows in its banner:
+ * forward steps are cells entered (set to <code>F</code>) and backward steps
+ * are cells abandoned while backtracking (set to <code>B</code>).
+ * The number of cells expanded, those whose neighbours the solver examined,
+ * allows different solvers to be compared.
+ */
+public class SolveResult {
+
+    /** Width of the maze solved, to convert cell indices. */
+    private final int width;
+
+    /** Cells on the path from start to goal, or an empty array. */
+    private final int[] path;
+
+    /** Number of forward steps. */
+    private final long forward;
+
+    /** Number of backward steps. */
+    private final long backward;
+
+    /** Number of cells expanded. */
+    private final long expanded;
+
+
+    /**
+     * Creates a result.
+     *
+     * @param   width       width of the maze
+     * @param   path        cells from start to goal, or <code>null</code> if the goal was not reached
+     * @param   forward     number of forward steps
+     * @param   backward    number of backward steps
+     * @param   expanded    number of cells expanded
+     */
+    SolveResult(int width, int[] path, long forward, long backward, long expanded) {
+
+        this.width = width;
+        this.path = (path == null) ? new int[0] : path;
+        this.forward = forward;
+        this.backward = backward;
+        this.expanded = expanded;
+
+    } // end of SolveResult(int, int[], long, long, long)
+
+
+    /**
+     * Indicates whether the solver reached the goal.
+     *
+     * @return  <code>true</code> if a path was found
+     */
+    public boolean solved() {
+        return path.length > 0;
+    } // end of solved()
+
+
+    /**
+     * Returns the cells on the path found, from start to goal inclusive.
+     *
+     * @return  linear indices (<code>row * width + col</code>) of the cells on the path,
+     *          or an empty array if no path was found
+     */
+    public int[] path() {
+        return path.clone();
+    } // end of path()
+
+
+    /**
+     * Returns the number of moves on the path found.
+     *
+     * @return  one less than the number of cells on the path, or <code>-1</code> if no path was found
+     */
+    public int length() {
+        return path.length - 1;
+    } // end of length()
+
+
+    /**
+     * Returns the row of a cell on the path.
+     *
+     * @param   i   position on the path, from 0 (the start)
+     * @return  the row of the <code>i</code>-th cell of the path
+     * @throws IndexOutOfBoundsException    if <code>i &lt; 0</code> or <code>i &gt; length()</code>
+     */
+    public int row(int i) {
+        return path[i] / width;
+    } // end of row(int)
+
+
+    /**
+     * Returns the column of a cell on the path.
+     *
+     * @param   i   position on the path, from 0 (the start)
+     * @return  the column of the <code>i</code>-th cell of the path
+     * @throws IndexOutOfBoundsException    if <code>i &lt; 0</code> or <code>i &gt; length()</code>
+     */
+    public int col(int i) {
+        return path[i] % width;
+    } // end of col(int)
+
+
+    /**
+     * Returns the number of forward steps (<code>fw</code> in the MazePlay banner).
+     *
+     * @return  the number of cells set to <code>F</code>
+     */
+    public long forward() {
+        return forward;
+    } // end of forward()
+
+
+    /**
+     * Returns the number of backward steps (<code>bk</code> in the MazePlay banner).
+     *
+     * @return  the number of cells set to <code>B</code>
+     */
+    public long backward() {
+        return backward;
+    } // end of backward()
+
+
+    /**
+     * Returns the number of cells the solver expanded, that is, whose neighbours it examined.
+     *
+     * @return  the number of cells expanded
+     */
+    public long expanded() {
+        return expanded;
+    } // end of expanded()
+
+
+    /**
+     * Returns a one-line summary of the result.
+     *
+     * @return  a String with the path length and step counts
+     */
+    public String toString() {
+        return String.format("%s length(%d) fw(%d) bk(%d) tot(%d) expanded(%d)",
+                solved() ? "solved" : "unsolved", length(), forward, backward, forward + backward, expanded);
+    } // end of toString()
+
+} // end of SolveResult
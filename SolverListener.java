@@ -0,0 +1,37 @@
+/*
+ * interface SolverListener
+ *
+ * Observer of a running maze solver
+ * COSC 102, Colgate University
+ */
+
+
+/**
+ * Receives the traversal state changes made by a maze solver as it runs.
+ * <p>
+ * The states use the same values as <code>MazePlay</code>, so the GUI is just one
+ * possible listener; solvers run headless when no listener is given.
+ * A listener may slow the solver down (the GUI pauses between steps) or stop it
+ * by throwing an unchecked exception, which propagates out of the solver.
+ */
+public interface SolverListener {
+
+    /** State of a cell that has not been visited. */
+    int E = 0;
+
+    /** State of a cell visited in the forward direction. */
+    int F = 1;
+
+    /** State of a cell left behind while backtracking. */
+    int B = 2;
+
+    /**
+     * Called each time the solver sets the state of a cell.
+     *
+     * @param   row     row number of the cell
+     * @param   col     column number of the cell
+     * @param   state   the new state: <code>E</code>, <code>F</code> or <code>B</code>
+     */
+    void setState(int row, int col, int state);
+
+} // end of SolverListener
@@ -0,0 +1,123 @@
+/*
+ * interface WallStore
+ *
+ * Backing storage for the walls of a Maze
+ * COSC 102, Colgate University
+ */
+
+
+import java.io.*;
+import java.nio.channels.*;
+
+
+/**
+ * Storage for the walls of a maze, two bits per cell.
+ * <p>
+ * Cells are numbered row by row, so cell <code>[row,col]</code> of a maze with
+ * <code>cols</code> columns is cell <code>row*cols + col</code>.  Indices are
+ * <code>long</code> so that stores can hold more than 2<sup>31</sup> cells.
+ * Each cell has a 2-bit code made of <code>BOT</code> and <code>RIGHT</code>.
+ * <p>
+ * Implementations do no bounds checking; that is done by <code>Maze</code>.
+ */
+interface WallStore {
+
+    /** Bit set in a cell's code when its bottom wall is present. */
+    int BOT = 1;
+
+    /** Bit set in a cell's code when its right wall is present. */
+    int RIGHT = 2;
+
+    /**
+     * Returns the number of cells in the store.
+     *
+     * @return  the number of cells
+     */
+    long cells();
+
+    /**
+     * Returns the wall code of a cell.
+     *
+     * @param   i   index of the cell
+     * @return  the cell's walls, a combination of <code>BOT</code> and <code>RIGHT</code>
+     */
+    int get(long i);
+
+    /**
+     * Adds walls to a cell.
+     *
+     * @param   i       index of the cell
+     * @param   bits    the walls to add, a combination of <code>BOT</code> and <code>RIGHT</code>
+     */
+    void set(long i, int bits);
+
+    /**
+     * Removes walls from a cell.
+     *
+     * @param   i       index of the cell
+     * @param   bits    the walls to remove, a combination of <code>BOT</code> and <code>RIGHT</code>
+     */
+    void clear(long i, int bits);
+
+    /**
+     * Replaces the walls of a cell in one atomic step.
+     * <code>set()</code> and <code>clear()</code> are meant for one writer at a time; concurrent
+     * calls to this method, even for cells that share storage, never lose each other's
+     * changes, and readers see the cell either before or after the change.
+     *
+     * @param   i       index of the cell
+     * @param   bits    the cell's new walls, a combination of <code>BOT</code> and <code>RIGHT</code>
+     */
+    void put(long i, int bits);
+
+    /**
+     * Gives every cell the same wall code.
+     *
+     * @param   bits    the walls every cell should have
+     */
+    void fill(int bits);
+
+    /**
+     * Replaces every cell's walls with those of another store of the same size.
+     * This copies cell by cell; stores override it with bulk copies where they can.
+     *
+     * @param   src     the store to copy
+     * @throws IllegalArgumentException  if <code>src</code> has a different number of cells
+     */
+    default void copyFrom(WallStore src) {
+
+        if (src.cells() != cells())
+            throw new IllegalArgumentException("cannot copy " + src.cells() + " cells into " + cells());
+
+        for (long i = 0; i < cells(); i++)
+            put(i, src.get(i));
+
+    } // end of copyFrom(WallStore)
+
+    /**
+     * Replaces every cell's walls with a payload read from a file, laid out as described in <code>MazeFile</code>.
+     *
+     * @param   ch      the channel to read from
+     * @param   pos     position of the first payload byte in the channel's file
+     * @throws IOException  if an error occurs while reading or the file ends before the payload does
+     */
+    void read(FileChannel ch, long pos) throws IOException;
+
+    /**
+     * Writes every cell's walls to a file as a payload laid out as described in <code>MazeFile</code>.
+     *
+     * @param   ch      the channel to write to
+     * @param   pos     position in the channel's file at which to write the first payload byte
+     * @throws IOException  if an error occurs while writing
+     */
+    void write(FileChannel ch, long pos) throws IOException;
+
+    /**
+     * Writes any changes to the underlying storage device.
+     * Does nothing for stores that live only in memory.
+     *
+     * @throws IOException  if the changes cannot be written
+     */
+    void flush() throws IOException;
+
+} // end of WallStore
@@ -0,0 +1,101 @@
+/*
+ * class WilsonGenerator
+ *
+ * Random maze generation with Wilson's algorithm
+ * COSC 102, Colgate University
+ */
+
+
+import java.util.*;
+
+
+/**
+ * Generates random perfect mazes with Wilson's algorithm, which picks uniformly
+ * among all the spanning trees of the grid.
+ * <p>
+ * The maze starts as a single random cell.  From each cell not yet in the maze, a
+ * random walk runs until it reaches the maze; each cell on the way remembers the
+ * direction it was last left in, so retracing the walk from its start follows the
+ * walk with its loops erased, and that path is added to the maze.  The directions
+ * take 2 bits per cell and membership of the maze 1 bit.
+ * <p>
+ * Early walks can be long, since they wander until they find a maze of only a few
+ * cells, so this is the slowest of the generators.
+ */
+final class WilsonGenerator implements MazeGenerator {
+
+    /** Directions, in the order used by <code>MazeSolver</code>. */
+    private static final int RIGHT = 0, DOWN = 1, LEFT = 2, UP = 3;
+
+
+    public String name() {
+        return "wilson";
+    }
+
+
+    public void generate(WallStore walls, int rows, int cols, SplittableRandom rd) {
+
+        walls.fill(WallStore.RIGHT | WallStore.BOT);
+
+        int n = rows * cols;
+        long[] in = new long[(n + 63) >>> 6];
+        long[] exit = new long[(n + 31) >>> 5];
+
+        int root = rd.nextInt(n);
+        in[root >>> 6] |= 1L << root;
+
+        for (int start = 0; start < n; start++) {
+
+            if ((in[start >>> 6] & (1L << start)) != 0)
+                continue;
+
+            // walk at random until the maze is reached, recording each exit
+            int cell = start;
+            do {
+                int row = cell / cols;
+                int col = cell - row * cols;
+                int dir;
+                do {
+                    dir = rd.nextInt(4);
+                } while ((dir == RIGHT && col == cols - 1) || (dir == DOWN && row == rows - 1)
+                         || (dir == LEFT && col == 0) || (dir == UP && row == 0));
+
+                int shift = (cell & 31) << 1;
+                exit[cell >>> 5] = (exit[cell >>> 5] & ~(3L << shift)) | (long) dir << shift;
+                cell = step(cell, dir, cols);
+            } while ((in[cell >>> 6] & (1L << cell)) == 0);
+
+            // retrace it, which skips the loops, adding each cell to the maze
+            cell = start;
+            while ((in[cell >>> 6] & (1L << cell)) == 0) {
+                int dir = (int) (exit[cell >>> 5] >>> ((cell & 31) << 1)) & 3;
+                switch (dir) {
+                    case RIGHT: walls.clear(cell, WallStore.RIGHT);        break;
+                    case DOWN:  walls.clear(cell, WallStore.BOT);          break;
+                    case LEFT:  walls.clear(cell - 1, WallStore.RIGHT);    break;
+                    default:    walls.clear(cell - cols, WallStore.BOT);   break;
+                }
+                in[cell >>> 6] |= 1L << cell;
+                cell = step(cell, dir, cols);
+            }
+
+        } // end of for
+
+    } // end of generate(WallStore, int, int, SplittableRandom)
+
+
+    /*
+     * Returns the cell next to a cell in a given direction.
+     */
+    private static int step(int cell, int dir, int cols) {
+
+        switch (dir) {
+            case RIGHT: return cell + 1;
+            case DOWN:  return cell + cols;
+            case LEFT:  return cell - 1;
+            default:    return cell - cols;
+        }
+
+    } // end of step(int, int, int)
+
+} // end of WilsonGenerator
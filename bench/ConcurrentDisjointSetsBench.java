@@ -0,0 +1,129 @@
+/*
+ * class ConcurrentDisjointSetsBench
+ *
+ * Stress test and throughput benchmark for ConcurrentDisjointSets
+ * COSC 102, Colgate University
+ *
+ * Compile and run from the project directory:
+ *      javac -d bench/out DisjointSets.java ConcurrentDisjointSets.java bench/ConcurrentDisjointSetsBench.java
+ *      java -Xmx4g -cp bench/out ConcurrentDisjointSetsBench [n] [maxThreads]
+ */
+
+
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Runs random unions on a <code>ConcurrentDisjointSets</code> from several threads at once.
+ * <p>
+ * For every thread count from 1 up to <tt>maxThreads</tt> (default: the number of
+ * processors), the same random pairs are split between the threads.  The resulting
+ * partition is checked against a sequential <code>DisjointSets</code> fed the same pairs:
+ * both must have the same number of sets, the same elements in each set, and the
+ * correct set sizes.  Throughput is reported in millions of unions per second, with the
+ * sequential structure as the baseline.
+ */
+public class ConcurrentDisjointSetsBench {
+
+    public static void main(String[] args) throws Exception {
+
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 10000000;
+        int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        // n pairs leave a mix of large and small sets
+        Random rd = new Random(1);
+        int[] pairs = new int[2 * n];
+        for (int i = 0; i < pairs.length; i++)
+            pairs[i] = rd.nextInt(n);
+
+        long t = System.nanoTime();
+        DisjointSets ref = new DisjointSets(n);
+        for (int i = 0; i < pairs.length; i += 2)
+            ref.union(pairs[i], pairs[i + 1]);
+        t = System.nanoTime() - t;
+
+        System.out.printf("n=%d, %d unions, %d sets%n", n, n, ref.count());
+        System.out.printf("%-12s %10.1f Munions/s%n", "sequential", n * 1e3 / t);
+
+        // powers of two, then maxThreads itself
+        for (int threads = 1; threads <= maxThreads; threads = (2 * threads > maxThreads && threads < maxThreads) ? maxThreads : 2 * threads) {
+            ConcurrentDisjointSets cds = new ConcurrentDisjointSets(n);
+
+            t = run(cds, pairs, threads);
+
+            String check = verify(cds, ref);
+            System.out.printf("%-12s %10.1f Munions/s   %s%n", threads + " thread(s)", n * 1e3 / t, check);
+        }
+    }
+
+    // splits the pairs between threads started together; returns elapsed nanoseconds
+    private static long run(final ConcurrentDisjointSets cds, final int[] pairs, int threads) throws Exception {
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<Future<?>>();
+
+        int chunk = (pairs.length / 2 + threads - 1) / threads;
+        for (int k = 0; k < threads; k++) {
+            final int from = 2 * Math.min(k * chunk, pairs.length / 2);
+            final int to = 2 * Math.min((k + 1) * chunk, pairs.length / 2);
+            done.add(pool.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    start.await();
+                    for (int i = from; i < to; i += 2)
+                        cds.union(pairs[i], pairs[i + 1]);
+                    return null;
+                }
+            }));
+        }
+
+        long t = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : done)
+            f.get();
+        t = System.nanoTime() - t;
+
+        pool.shutdown();
+        return t;
+    }
+
+    // compares the partitions and set sizes of the two structures
+    private static String verify(ConcurrentDisjointSets cds, DisjointSets ref) {
+
+        int n = ref.size();
+        if (cds.count() != ref.count())
+            return "FAILED: " + cds.count() + " sets, expected " + ref.count();
+
+        // each reference root must map to exactly one concurrent root, and back
+        int[] toCds = new int[n];
+        int[] toRef = new int[n];
+        Arrays.fill(toCds, -1);
+        Arrays.fill(toRef, -1);
+
+        for (int i = 0; i < n; i++) {
+            int r = ref.find(i);
+            int c = cds.find(i);
+            if (toCds[r] < 0)
+                toCds[r] = c;
+            if (toRef[c] < 0)
+                toRef[c] = r;
+            if (toCds[r] != c || toRef[c] != r)
+                return "FAILED: element " + i + " is in the wrong set";
+        }
+
+        // sizes are only visible through union(), so join every set into one:
+        // if no size was lost, the last union reports all n elements
+        int last = (n == 1) ? 1 : -1;
+        for (int i = 1; i < n; i++) {
+            int size = cds.union(0, i);
+            if (size != -1)
+                last = size;
+        }
+        if (last != n)
+            return "FAILED: sets add up to " + last + " elements, expected " + n;
+
+        return "ok";
+    }
+
+} // end of ConcurrentDisjointSetsBench
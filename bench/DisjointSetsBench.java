@@ -0,0 +1,163 @@
+/*
+ * class DisjointSetsBench
+ *
+ * Microbenchmark for DisjointSets
+ * COSC 102, Colgate University
+ *
+ * Compile and run from the project directory:
+ *      javac -d bench/out DisjointSets.java bench/DisjointSetsBench.java
+ *      java -Xmx4g -cp bench/out DisjointSetsBench [maxExponent]
+ */
+
+
+import java.lang.reflect.*;
+import java.util.*;
+
+
+/**
+ * Times <code>DisjointSets</code> against the recursive, allocating
+ * implementation it replaced.
+ * <p>
+ * For every size from 10<sup>6</sup> up to 10<sup>maxExponent</sup> (default 8)
+ * three workloads are run on both implementations:
+ * <ul>
+ * <li><b>random</b>: unions of random pairs, drawn from the same seed for both,
+ * until a single set remains, which is what maze generation does.  That takes
+ * about <i>n</i> ln(<i>n</i>)/2 pairs; drawing them is timed too.</li>
+ * <li><b>scan</b>: <tt>union(i-1, i)</tt> for every element, followed by a
+ * <tt>find</tt> on every element.</li>
+ * <li><b>chain</b>: a <tt>find</tt> on every element, in order, of a single
+ * parent chain through all <i>n</i> elements.  Union by size keeps trees
+ * shallow, so neither of the other workloads makes long paths; the chain is
+ * written straight into each implementation's array, as a structure built
+ * without the size rule would be.  The recursive <tt>find</tt> overflows the
+ * stack on it.</li>
+ * </ul>
+ * Times are reported in nanoseconds per operation.
+ */
+public class DisjointSetsBench {
+
+    /** The recursive implementation <code>DisjointSets</code> used to have. */
+    private static class RecursiveSets {
+
+        private int[] s;
+
+        RecursiveSets(int n) {
+            s = new int[n];
+            Arrays.fill(s, -1);
+        }
+
+        int find(int x) {
+            if (s[x] < 0) return x;
+            else return s[x] = find(s[x]);
+        }
+
+        int union(int x, int y) {
+            int[] r = { find(x), find(y) };
+            if (r[0] == r[1])
+                return -1;
+            int l = (s[r[0]] < s[r[1]]) ? 0 : 1;
+            s[r[l]] += s[r[l^1]];
+            s[r[l^1]] = r[l];
+            return -s[r[l]];
+        }
+    }
+
+
+    public static void main(String[] args) {
+
+        int maxExp = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+
+        System.out.printf("%-10s %-8s %14s %14s%n", "n", "workload", "recursive", "iterative");
+
+        for (int e = 6; e <= maxExp; e++) {
+            int n = (int) Math.pow(10, e);
+
+            System.out.printf("%-10d %-8s %14s %14s%n", n, "random",
+                    timeRandom(n, e, true), timeRandom(n, e, false));
+            System.out.printf("%-10d %-8s %14s %14s%n", n, "scan",
+                    timeScan(n, true), timeScan(n, false));
+            System.out.printf("%-10d %-8s %14s %14s%n", n, "chain",
+                    timeChain(n, true), timeChain(n, false));
+        }
+    }
+
+    // unions random pairs until one set remains; the same seed gives both implementations the same pairs
+    private static String timeRandom(int n, long seed, boolean recursive) {
+        SplittableRandom rd = new SplittableRandom(seed);
+        long ops = 0;
+        long t = System.nanoTime();
+
+        if (recursive) {
+            RecursiveSets rs = new RecursiveSets(n);
+            // union returns the size of the joined set, or -1 if the pair was already joined
+            for (int size = 1; size < n; ops++)
+                size = Math.max(size, rs.union(rd.nextInt(n), rd.nextInt(n)));
+        } else {
+            DisjointSets ds = new DisjointSets(n);
+            for (; ds.count() > 1; ops++)
+                ds.union(rd.nextInt(n), rd.nextInt(n));
+        }
+
+        return String.format("%.1f ns/op", (double) (System.nanoTime() - t) / ops);
+    }
+
+    // finds every element of a parent chain 0 -> 1 -> ... -> n-1
+    private static String timeChain(int n, boolean recursive) {
+        int[] chain = new int[n];
+        for (int i = 0; i < n - 1; i++)
+            chain[i] = i + 1;
+        chain[n - 1] = -n;
+
+        long t = System.nanoTime();
+        try {
+            if (recursive) {
+                RecursiveSets rs = new RecursiveSets(0);
+                rs.s = chain;
+                for (int i = 0; i < n; i++)
+                    rs.find(i);
+            } else {
+                DisjointSets ds = new DisjointSets(0);
+                setArray(ds, chain);
+                for (int i = 0; i < n; i++)
+                    ds.find(i);
+            }
+        } catch (StackOverflowError e) {
+            return "stack overflow";
+        }
+
+        return String.format("%.1f ns/op", (double) (System.nanoTime() - t) / n);
+    }
+
+    // replaces the parent/size array of a DisjointSets
+    private static void setArray(DisjointSets ds, int[] s) {
+        try {
+            Field f = DisjointSets.class.getDeclaredField("s");
+            f.setAccessible(true);
+            f.set(ds, s);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String timeScan(int n, boolean recursive) {
+        long t = System.nanoTime();
+
+        if (recursive) {
+            RecursiveSets rs = new RecursiveSets(n);
+            for (int i = 1; i < n; i++)
+                rs.union(i - 1, i);
+            for (int i = 0; i < n; i++)
+                rs.find(i);
+        } else {
+            DisjointSets ds = new DisjointSets(n);
+            for (int i = 1; i < n; i++)
+                ds.union(i - 1, i);
+            for (int i = 0; i < n; i++)
+                ds.find(i);
+        }
+
+        return String.format("%.1f ns/op", (double) (System.nanoTime() - t) / (2L * n));
+    }
+
+} // end of DisjointSetsBench
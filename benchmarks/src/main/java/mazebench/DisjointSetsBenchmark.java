@@ -0,0 +1,88 @@
+/*
+ * class DisjointSetsBenchmark
+ *
+ * JMH benchmark for DisjointSets
+ * COSC 102, Colgate University
+ */
+
+package mazebench;
+
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures <code>DisjointSets.union()</code> and <code>find()</code> from
+ * 10<sup>4</sup> to 10<sup>7</sup> elements.
+ * <ul>
+ * <li><b>union</b>: a new structure, then <tt>size</tt> unions of random pairs,
+ * which is about what maze generation does.  One operation is the whole run.</li>
+ * <li><b>find</b>: finds of random elements on a structure built that way.
+ * One operation is a single find.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DisjointSetsBenchmark {
+
+    /** Number of finds per call of <code>find()</code>. */
+    private static final int FINDS = 1 << 16;
+
+    @Param({ "10000", "100000", "1000000", "10000000" })
+    public String size;
+
+    private int n;
+    private int[] pairs;
+    private int[] queries;
+    private Object sets;
+
+    @Setup
+    public void setup() {
+
+        n = Integer.parseInt(size);
+        SplittableRandom rd = new SplittableRandom(Mazes.SEED);
+
+        pairs = new int[2 * n];
+        for (int i = 0; i < pairs.length; i++)
+            pairs[i] = rd.nextInt(n);
+
+        queries = new int[FINDS];
+        for (int i = 0; i < FINDS; i++)
+            queries[i] = rd.nextInt(n);
+
+        sets = MazeApi.newSets(n);
+        for (int k = 0; k < n; k++)
+            MazeApi.union(sets, pairs[2 * k], pairs[2 * k + 1]);
+
+    } // end of setup()
+
+    @Benchmark
+    public int union() {
+
+        Object s = MazeApi.newSets(n);
+        for (int k = 0; k < n; k++)
+            MazeApi.union(s, pairs[2 * k], pairs[2 * k + 1]);
+
+        return MazeApi.count(s);
+
+    } // end of union()
+
+    @Benchmark
+    @OperationsPerInvocation(FINDS)
+    public int find() {
+
+        int sum = 0;
+        for (int q : queries)
+            sum += MazeApi.find(sets, q);
+
+        return sum;
+
+    } // end of find()
+
+} // end of DisjointSetsBenchmark
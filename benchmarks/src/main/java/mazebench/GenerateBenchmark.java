@@ -0,0 +1,56 @@
+/*
+ * class GenerateBenchmark
+ *
+ * JMH benchmark for maze generation
+ * COSC 102, Colgate University
+ */
+
+package mazebench;
+
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures <code>new Maze(rows, cols, generator, seed)</code> for every generator,
+ * from 10<sup>4</sup> to 10<sup>7</sup> cells.  <tt>kruskal</tt> is what
+ * <code>new Maze(rows, cols)</code> runs.  Each call uses the next seed, so the
+ * same sequence of mazes is generated on every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class GenerateBenchmark {
+
+    @Param({ "100x100", "316x316", "1000x1000", "3162x3162" })
+    public String size;
+
+    @Param({ "kruskal", "parallel", "backtracker", "prim", "wilson", "binarytree", "sidewinder" })
+    public String algorithm;
+
+    private int rows;
+    private int cols;
+    private Object generator;
+    private long seed;
+
+    @Setup
+    public void setup() {
+
+        int[] d = Mazes.dimensions(size);
+        rows = d[0];
+        cols = d[1];
+        generator = MazeApi.generator(algorithm);
+        seed = Mazes.SEED;
+
+    } // end of setup()
+
+    @Benchmark
+    public Object generate() {
+        return MazeApi.generate(rows, cols, generator, seed++);
+    }
+
+} // end of GenerateBenchmark
@@ -0,0 +1,72 @@
+/*
+ * class LoadBenchmark
+ *
+ * JMH benchmark for reading maze files
+ * COSC 102, Colgate University
+ */
+
+package mazebench;
+
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures <code>new Maze(filename)</code> on text, gzipped text and binary files,
+ * for a sample maze and for mazes of 10<sup>4</sup> to 10<sup>7</sup> cells.
+ * The files are written to a temporary directory before the measurements start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LoadBenchmark {
+
+    @Param({ "sample_mazes/40.maze", "100x100", "316x316", "1000x1000", "3162x3162" })
+    public String size;
+
+    @Param({ "text", "gzip", "binary" })
+    public String format;
+
+    private Path dir;
+    private String file;
+
+    @Setup
+    public void setup() throws IOException {
+
+        Object maze = Mazes.create(size);
+        dir = Files.createTempDirectory("mazebench");
+
+        switch (format) {
+            case "text":
+                file = dir.resolve("maze.maze").toString();
+                MazeApi.save(maze, file);
+                break;
+            case "gzip":
+                file = dir.resolve("maze.maze.gz").toString();
+                MazeApi.save(maze, file);
+                break;
+            default:
+                file = dir.resolve("maze.mazb").toString();
+                MazeApi.saveBinary(maze, file);
+                break;
+        }
+
+    } // end of setup()
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Mazes.delete(dir);
+    }
+
+    @Benchmark
+    public Object load() throws IOException {
+        return MazeApi.load(file);
+    }
+
+} // end of LoadBenchmark
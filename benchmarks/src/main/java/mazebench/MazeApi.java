@@ -0,0 +1,255 @@
+/*
+ * class MazeApi
+ *
+ * Access to the maze classes for the JMH benchmarks
+ * COSC 102, Colgate University
+ */
+
+package mazebench;
+
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+
+
+/**
+ * Calls into <code>Maze</code>, <code>MazeGenerator</code> and <code>DisjointSets</code>.
+ * <p>
+ * JMH refuses benchmarks in the default package, and code in a named package cannot
+ * name classes in the default package, so the benchmarks reach the maze classes
+ * through method handles looked up once by name.  The handles are
+ * <code>static final</code>, so the JIT compiler treats them as constants and inlines
+ * the calls like direct ones.  Mazes, generators and sets are passed around as
+ * <code>Object</code>.
+ */
+final class MazeApi {
+
+    private static final MethodHandle GENERATOR;
+    private static final MethodHandle GENERATE;
+    private static final MethodHandle LOAD;
+    private static final MethodHandle SAVE;
+    private static final MethodHandle SAVE_BINARY;
+    private static final MethodHandle WIDTH;
+    private static final MethodHandle HEIGHT;
+    private static final MethodHandle DFS;
+    private static final MethodHandle BFS;
+    private static final MethodHandle ASTAR;
+    private static final MethodHandle BIDIRECTIONAL;
+    private static final MethodHandle LENGTH;
+    private static final MethodHandle NEW_SETS;
+    private static final MethodHandle FIND;
+    private static final MethodHandle UNION;
+    private static final MethodHandle COUNT;
+
+    private static final Object MANHATTAN;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> maze = Class.forName("Maze");
+            Class<?> generator = Class.forName("MazeGenerator");
+            Class<?> heuristic = Class.forName("Heuristic");
+            Class<?> listener = Class.forName("SolverListener");
+            Class<?> result = Class.forName("SolveResult");
+            Class<?> sets = Class.forName("DisjointSets");
+
+            GENERATOR = lookup.findStatic(generator, "forName", MethodType.methodType(generator, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            GENERATE = lookup.findConstructor(maze, MethodType.methodType(void.class, int.class, int.class, generator, long.class))
+                .asType(MethodType.methodType(Object.class, int.class, int.class, Object.class, long.class));
+            LOAD = lookup.findConstructor(maze, MethodType.methodType(void.class, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            SAVE = lookup.findVirtual(maze, "save", MethodType.methodType(void.class, String.class))
+                .asType(MethodType.methodType(void.class, Object.class, String.class));
+            SAVE_BINARY = lookup.findVirtual(maze, "saveBinary", MethodType.methodType(void.class, String.class))
+                .asType(MethodType.methodType(void.class, Object.class, String.class));
+            WIDTH = lookup.findVirtual(maze, "width", MethodType.methodType(int.class))
+                .asType(MethodType.methodType(int.class, Object.class));
+            HEIGHT = lookup.findVirtual(maze, "height", MethodType.methodType(int.class))
+                .asType(MethodType.methodType(int.class, Object.class));
+
+            MethodType path = MethodType.methodType(result, int.class, int.class, int.class, int.class, listener);
+            MethodType erased = MethodType.methodType(Object.class, Object.class, int.class, int.class, int.class, int.class);
+            DFS = MethodHandles.insertArguments(lookup.findVirtual(maze, "solve", path), 5, (Object) null).asType(erased);
+            BFS = MethodHandles.insertArguments(lookup.findVirtual(maze, "solveShortest", path), 5, (Object) null).asType(erased);
+            BIDIRECTIONAL = MethodHandles.insertArguments(lookup.findVirtual(maze, "solveBidirectional", path), 5, (Object) null).asType(erased);
+            MANHATTAN = heuristic.getField("MANHATTAN").get(null);
+            ASTAR = MethodHandles.insertArguments(
+                lookup.findVirtual(maze, "solveAStar", MethodType.methodType(result, int.class, int.class, int.class, int.class, heuristic, listener)),
+                5, MANHATTAN, null).asType(erased);
+            LENGTH = lookup.findVirtual(result, "length", MethodType.methodType(int.class))
+                .asType(MethodType.methodType(int.class, Object.class));
+
+            NEW_SETS = lookup.findConstructor(sets, MethodType.methodType(void.class, int.class))
+                .asType(MethodType.methodType(Object.class, int.class));
+            FIND = lookup.findVirtual(sets, "find", MethodType.methodType(int.class, int.class))
+                .asType(MethodType.methodType(int.class, Object.class, int.class));
+            UNION = lookup.findVirtual(sets, "union", MethodType.methodType(int.class, int.class, int.class))
+                .asType(MethodType.methodType(int.class, Object.class, int.class, int.class));
+            COUNT = lookup.findVirtual(sets, "count", MethodType.methodType(int.class))
+                .asType(MethodType.methodType(int.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private MazeApi() { }
+
+
+    /** Returns <code>MazeGenerator.forName(name)</code>. */
+    static Object generator(String name) {
+        try {
+            return (Object) GENERATOR.invokeExact(name);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Returns <code>new Maze(rows, cols, gen, seed)</code>. */
+    static Object generate(int rows, int cols, Object gen, long seed) {
+        try {
+            return (Object) GENERATE.invokeExact(rows, cols, gen, seed);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Returns <code>new Maze(filename)</code>. */
+    static Object load(String filename) throws IOException {
+        try {
+            return (Object) LOAD.invokeExact(filename);
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Calls <code>maze.save(filename)</code>. */
+    static void save(Object maze, String filename) throws IOException {
+        try {
+            SAVE.invokeExact(maze, filename);
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Calls <code>maze.saveBinary(filename)</code>. */
+    static void saveBinary(Object maze, String filename) throws IOException {
+        try {
+            SAVE_BINARY.invokeExact(maze, filename);
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Returns <code>maze.width()</code>. */
+    static int width(Object maze) {
+        try {
+            return (int) WIDTH.invokeExact(maze);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Returns <code>maze.height()</code>. */
+    static int height(Object maze) {
+        try {
+            return (int) HEIGHT.invokeExact(maze);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /**
+     * Solves a maze from its top-left to its bottom-right cell, without a listener.
+     *
+     * @param   solver  <tt>dfs</tt>, <tt>bfs</tt>, <tt>astar</tt> (Manhattan distance) or <tt>bidirectional</tt>
+     * @param   maze    the maze to solve
+     * @return  the <code>SolveResult</code>
+     */
+    static Object solve(String solver, Object maze) {
+
+        int gr = height(maze) - 1;
+        int gc = width(maze) - 1;
+
+        try {
+            switch (solver) {
+                case "dfs":             return (Object) DFS.invokeExact(maze, 0, 0, gr, gc);
+                case "bfs":             return (Object) BFS.invokeExact(maze, 0, 0, gr, gc);
+                case "astar":           return (Object) ASTAR.invokeExact(maze, 0, 0, gr, gc);
+                case "bidirectional":   return (Object) BIDIRECTIONAL.invokeExact(maze, 0, 0, gr, gc);
+                default:                throw new IllegalArgumentException("unknown solver " + solver);
+            }
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+
+    } // end of solve(String, Object)
+
+    /** Returns <code>result.length()</code>. */
+    static int length(Object result) {
+        try {
+            return (int) LENGTH.invokeExact(result);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Returns <code>new DisjointSets(n)</code>. */
+    static Object newSets(int n) {
+        try {
+            return (Object) NEW_SETS.invokeExact(n);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Returns <code>sets.find(x)</code>. */
+    static int find(Object sets, int x) {
+        try {
+            return (int) FIND.invokeExact(sets, x);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Returns <code>sets.union(x, y)</code>. */
+    static int union(Object sets, int x, int y) {
+        try {
+            return (int) UNION.invokeExact(sets, x, y);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+    /** Returns <code>sets.count()</code>. */
+    static int count(Object sets) {
+        try {
+            return (int) COUNT.invokeExact(sets);
+        } catch (Throwable t) {
+            throw unchecked(t);
+        }
+    }
+
+
+    /*
+     * Returns an unchecked exception to throw in place of whatever a method handle threw.
+     */
+    private static RuntimeException unchecked(Throwable t) {
+
+        if (t instanceof RuntimeException)
+            return (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+
+        return new UndeclaredThrowableException(t);
+
+    } // end of unchecked(Throwable)
+
+} // end of MazeApi
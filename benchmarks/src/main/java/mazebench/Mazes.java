@@ -0,0 +1,91 @@
+/*
+ * class Mazes
+ *
+ * Mazes of a given size for the JMH benchmarks
+ * COSC 102, Colgate University
+ */
+
+package mazebench;
+
+
+import java.io.*;
+import java.nio.file.*;
+
+
+/**
+ * Turns the <tt>size</tt> parameter of a benchmark into a maze.
+ * <p>
+ * A size is either <tt><i>rows</i>x<i>cols</i></tt>, for a maze generated with
+ * Kruskal's algorithm from a fixed seed, or the name of a maze file relative to the
+ * repository root (such as <tt>sample_mazes/40.maze</tt>).  The root is taken from
+ * the <tt>maze.root</tt> system property, and defaults to the parent of the working
+ * directory, which is right when running from <tt>benchmarks/</tt>.
+ */
+final class Mazes {
+
+    /** Seed for every generated maze, so that runs are comparable. */
+    static final long SEED = 102;
+
+    private Mazes() { }
+
+
+    /**
+     * Returns true if a size names a maze file rather than dimensions.
+     *
+     * @param   size    the size parameter
+     * @return  true for a file name
+     */
+    static boolean isFile(String size) {
+        return !size.matches("\\d+x\\d+");
+    }
+
+
+    /**
+     * Returns the dimensions given by a size that is not a file name.
+     *
+     * @param   size    the size parameter, <tt><i>rows</i>x<i>cols</i></tt>
+     * @return  rows and columns
+     */
+    static int[] dimensions(String size) {
+
+        int x = size.indexOf('x');
+        return new int[] { Integer.parseInt(size.substring(0, x)), Integer.parseInt(size.substring(x + 1)) };
+
+    } // end of dimensions(String)
+
+
+    /**
+     * Returns the maze for a size.
+     *
+     * @param   size    the size parameter
+     * @return  the maze, loaded or generated
+     * @throws IOException  if a maze file cannot be read
+     */
+    static Object create(String size) throws IOException {
+
+        if (isFile(size))
+            return MazeApi.load(Paths.get(System.getProperty("maze.root", ".."), size).toString());
+
+        int[] d = dimensions(size);
+        return MazeApi.generate(d[0], d[1], MazeApi.generator("kruskal"), SEED);
+
+    } // end of create(String)
+
+
+    /**
+     * Deletes a temporary directory and the files in it.
+     *
+     * @param   dir     the directory
+     * @throws IOException  if a file cannot be deleted
+     */
+    static void delete(Path dir) throws IOException {
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files)
+                Files.delete(f);
+        }
+        Files.delete(dir);
+
+    } // end of delete(Path)
+
+} // end of Mazes
@@ -0,0 +1,280 @@
+/*
+ * class Report
+ *
+ * Runs the JMH benchmarks and reports scaling and regressions
+ * COSC 102, Colgate University
+ */
+
+package mazebench;
+
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import org.openjdk.jmh.infra.*;
+import org.openjdk.jmh.profile.*;
+import org.openjdk.jmh.results.*;
+import org.openjdk.jmh.results.format.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+
+/**
+ * Runs benchmarks with the GC profiler, saves the results as CSV, and prints a
+ * scaling table: for each benchmark and each combination of its other parameters,
+ * the time and allocation per operation and per cell at every size.  A cost per
+ * cell that grows with the size shows an algorithm scaling worse than linearly.
+ * <p>
+ * <b><i>Usage:</i></b>
+ * <tt>java -cp target/benchmarks.jar mazebench.Report [-out <i>file</i>]
+ * [-baseline <i>file</i>] [-threshold <i>fraction</i>] [<i>JMH options</i>]</tt>
+ * <ul>
+ * <li><i>JMH options</i>: anything <tt>java -jar target/benchmarks.jar</tt> accepts,
+ * such as benchmark regexps or <tt>-p size=1000x1000</tt> (default all benchmarks).</li>
+ * <li><tt>-out</tt>: where to save the results (default <tt>jmh-result.csv</tt>).</li>
+ * <li><tt>-baseline</tt>: results saved by an earlier run.  Each benchmark is
+ * compared to its baseline score, and the program exits with status 1 if any is
+ * slower by more than the threshold.</li>
+ * <li><tt>-threshold</tt>: allowed slowdown as a fraction of the baseline score (default 0.10).</li>
+ * </ul>
+ */
+public class Report {
+
+    /** Suffix of the GC profiler's result for bytes allocated per operation. */
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+
+    public static void main(String[] args) throws Exception {
+
+        String out = "jmh-result.csv";
+        String baseline = null;
+        double threshold = 0.10;
+        List<String> jmh = new ArrayList<String>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-out") && i + 1 < args.length)
+                out = args[++i];
+            else if (args[i].equals("-baseline") && i + 1 < args.length)
+                baseline = args[++i];
+            else if (args[i].equals("-threshold") && i + 1 < args.length)
+                threshold = Double.parseDouble(args[++i]);
+            else
+                jmh.add(args[i]);
+        }
+
+        // read the baseline first, so a bad file is reported before hours of benchmarks
+        Map<String, Double> base = baseline == null ? null : readCsv(baseline);
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(jmh.toArray(new String[jmh.size()])))
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.CSV)
+            .result(out)
+            .build()).run();
+
+        printScaling(results);
+
+        if (base != null && !compare(results, base, threshold))
+            System.exit(1);
+
+    } // end of main(String[])
+
+
+    /*
+     * Prints the results grouped by benchmark and non-size parameters, in order of size.
+     */
+    private static void printScaling(Collection<RunResult> results) throws IOException {
+
+        Map<String, List<RunResult>> groups = new TreeMap<String, List<RunResult>>();
+        for (RunResult r : results) {
+            String group = key(r.getParams(), false);
+            if (!groups.containsKey(group))
+                groups.put(group, new ArrayList<RunResult>());
+            groups.get(group).add(r);
+        }
+
+        Map<String, Long> cells = new HashMap<String, Long>();
+        System.out.println();
+        System.out.println("Scaling (per cell costs apply to operations on a whole maze or structure):");
+
+        for (Map.Entry<String, List<RunResult>> g : groups.entrySet()) {
+
+            List<RunResult> rows = g.getValue();
+            for (RunResult r : rows) {
+                String size = r.getParams().getParam("size");
+                if (size != null && !cells.containsKey(size))
+                    cells.put(size, cells(size));
+            }
+            final Map<String, Long> n = cells;
+            Collections.sort(rows, new Comparator<RunResult>() {
+                public int compare(RunResult a, RunResult b) {
+                    return Long.compare(size(n, a), size(n, b));
+                }
+            });
+
+            System.out.println();
+            System.out.println(g.getKey());
+            System.out.printf("%24s %12s %14s %12s %14s %12s%n", "size", "cells", "ns/op", "ns/cell", "B/op", "B/cell");
+
+            for (RunResult r : rows) {
+                long c = size(n, r);
+                double ns = 1e9 / r.getPrimaryResult().getScore();
+                double bytes = alloc(r);
+                System.out.printf("%24s %12d %14.1f %12.3f %14.0f %12.2f%n",
+                                  r.getParams().getParam("size"), c, ns, ns / c, bytes, bytes / c);
+            }
+
+        } // end of for
+
+    } // end of printScaling(Collection<RunResult>)
+
+
+    /*
+     * Compares every result with its baseline score and prints the ratios.
+     * Returns false if any benchmark is slower than allowed.
+     */
+    private static boolean compare(Collection<RunResult> results, Map<String, Double> base, double threshold) {
+
+        boolean ok = true;
+        System.out.println();
+        System.out.println("Compared with the baseline (new score / old score, higher is faster):");
+
+        for (RunResult r : results) {
+            String k = key(r.getParams(), true);
+            Double old = base.get(k);
+            if (old == null) {
+                System.out.printf("  %-80s     new%n", k);
+                continue;
+            }
+            double ratio = r.getPrimaryResult().getScore() / old;
+            boolean slow = ratio < 1 - threshold;
+            System.out.printf("  %-80s %7.3f%s%n", k, ratio, slow ? "  REGRESSION" : "");
+            ok &= !slow;
+        }
+
+        return ok;
+
+    } // end of compare(Collection<RunResult>, Map<String, Double>, double)
+
+
+    /*
+     * Returns the name of a benchmark followed by its parameters in name order,
+     * with or without its size.
+     */
+    private static String key(BenchmarkParams p, boolean withSize) {
+
+        StringBuilder sb = new StringBuilder(p.getBenchmark());
+        for (String name : new TreeSet<String>(p.getParamsKeys()))
+            if (withSize || !name.equals("size"))
+                sb.append(' ').append(name).append('=').append(p.getParam(name));
+
+        return sb.toString();
+
+    } // end of key(BenchmarkParams, boolean)
+
+
+    /*
+     * Reads the primary scores of a CSV file written by JMH, keyed like key(p, true).
+     */
+    private static Map<String, Double> readCsv(String filename) throws IOException {
+
+        List<String> lines = Files.readAllLines(Paths.get(filename), StandardCharsets.UTF_8);
+        List<String> header = fields(lines.get(0));
+        int score = header.indexOf("Score");
+
+        Map<String, Double> scores = new HashMap<String, Double>();
+        for (String line : lines.subList(1, lines.size())) {
+
+            List<String> f = fields(line);
+            // skip the secondary results of the profilers
+            if (f.size() < header.size() || f.get(0).contains(":"))
+                continue;
+
+            TreeMap<String, String> params = new TreeMap<String, String>();
+            for (int i = 0; i < header.size(); i++)
+                if (header.get(i).startsWith("Param: ") && !f.get(i).isEmpty())
+                    params.put(header.get(i).substring(7), f.get(i));
+
+            StringBuilder sb = new StringBuilder(f.get(0));
+            for (Map.Entry<String, String> e : params.entrySet())
+                sb.append(' ').append(e.getKey()).append('=').append(e.getValue());
+
+            scores.put(sb.toString(), Double.parseDouble(f.get(score)));
+        }
+
+        return scores;
+
+    } // end of readCsv(String)
+
+
+    /*
+     * Splits a CSV line into fields, removing the quotes around quoted fields.
+     */
+    private static List<String> fields(String line) {
+
+        List<String> f = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == '"')
+                quoted = !quoted;
+            else if (ch == ',' && !quoted) {
+                f.add(sb.toString());
+                sb.setLength(0);
+            }
+            else
+                sb.append(ch);
+        }
+        f.add(sb.toString());
+
+        return f;
+
+    } // end of fields(String)
+
+
+    /*
+     * Returns the number of cells (or elements) a size parameter stands for.
+     */
+    private static long cells(String size) throws IOException {
+
+        if (size.matches("\\d+"))
+            return Long.parseLong(size);
+        if (!Mazes.isFile(size)) {
+            int[] d = Mazes.dimensions(size);
+            return (long) d[0] * d[1];
+        }
+
+        Object maze = Mazes.create(size);
+        return (long) MazeApi.width(maze) * MazeApi.height(maze);
+
+    } // end of cells(String)
+
+
+    /*
+     * Returns the size of a result, or 1 for a benchmark without a size.
+     */
+    private static long size(Map<String, Long> cells, RunResult r) {
+
+        String size = r.getParams().getParam("size");
+        return size == null ? 1 : cells.get(size);
+
+    } // end of size(Map<String, Long>, RunResult)
+
+
+    /*
+     * Returns the bytes allocated per operation, or NaN without the GC profiler's result.
+     */
+    private static double alloc(RunResult r) {
+
+        for (Map.Entry<String, Result> e : r.getSecondaryResults().entrySet())
+            if (e.getKey().endsWith(ALLOC))
+                return e.getValue().getScore();
+
+        return Double.NaN;
+
+    } // end of alloc(RunResult)
+
+} // end of Report
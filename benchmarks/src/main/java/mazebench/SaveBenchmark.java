@@ -0,0 +1,70 @@
+/*
+ * class SaveBenchmark
+ *
+ * JMH benchmark for writing maze files
+ * COSC 102, Colgate University
+ */
+
+package mazebench;
+
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures <code>Maze.save()</code> to text and gzipped text files, and
+ * <code>Maze.saveBinary()</code>, for a sample maze and for mazes of
+ * 10<sup>4</sup> to 10<sup>7</sup> cells.  Every call overwrites the same file
+ * in a temporary directory.  Saving changes the title of a maze, so each iteration
+ * starts from a freshly made maze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SaveBenchmark {
+
+    @Param({ "sample_mazes/40.maze", "100x100", "316x316", "1000x1000", "3162x3162" })
+    public String size;
+
+    @Param({ "text", "gzip", "binary" })
+    public String format;
+
+    private Object maze;
+    private Path dir;
+    private String file;
+
+    @Setup
+    public void setup() throws IOException {
+
+        dir = Files.createTempDirectory("mazebench");
+        file = dir.resolve(format.equals("gzip") ? "maze.maze.gz" : "maze.maze").toString();
+
+    } // end of setup()
+
+    @Setup(Level.Iteration)
+    public void freshMaze() throws IOException {
+        maze = Mazes.create(size);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Mazes.delete(dir);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+
+        if (format.equals("binary"))
+            MazeApi.saveBinary(maze, file);
+        else
+            MazeApi.save(maze, file);
+
+    } // end of save()
+
+} // end of SaveBenchmark
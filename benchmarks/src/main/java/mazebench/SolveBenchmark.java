@@ -0,0 +1,46 @@
+/*
+ * class SolveBenchmark
+ *
+ * JMH benchmark for the maze solvers
+ * COSC 102, Colgate University
+ */
+
+package mazebench;
+
+
+import java.io.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures each solver from the top-left to the bottom-right cell, with no listener,
+ * on a sample maze and on mazes of 10<sup>4</sup> to 10<sup>7</sup> cells.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SolveBenchmark {
+
+    @Param({ "sample_mazes/40.maze", "100x100", "316x316", "1000x1000", "3162x3162" })
+    public String size;
+
+    @Param({ "dfs", "bfs", "astar", "bidirectional" })
+    public String solver;
+
+    private Object maze;
+
+    @Setup
+    public void setup() throws IOException {
+        maze = Mazes.create(size);
+    }
+
+    @Benchmark
+    public Object solve() {
+        return MazeApi.solve(solver, maze);
+    }
+
+} // end of SolveBenchmark